@@ -0,0 +1,72 @@
+package com.elevatorcontroller;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Ingestion of a burst of hall calls and destinations (shift change):
+ * one addCall/addDestination per request versus addCalls/addDestinations
+ * for the whole burst. The car wake-up listener is installed, as in a
+ * running building. One operation is a whole burst into an empty car.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchIngestionBenchmark {
+    
+    @Param({"8", "64"})
+    public int burst;
+    
+    private Elevator elevator;
+    private int[] floors;
+    private Elevator.Direction[] directions;
+    private final AtomicLong wakeUps = new AtomicLong();
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        floors = new int[burst];
+        directions = new Elevator.Direction[burst];
+        for (int i = 0; i < burst; i++) {
+            floors[i] = random.nextInt(100);
+            directions[i] = random.nextBoolean() ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+        }
+    }
+    
+    @Setup(Level.Invocation)
+    public void resetElevator() {
+        // A fresh car each time, so every burst adds new requests rather than duplicates
+        elevator = new Elevator(0, 99);
+        elevator.setDirection(Elevator.Direction.UP);
+        elevator.setRequestListener(wakeUps::incrementAndGet);
+    }
+    
+    @Benchmark
+    public void callsOneByOne() {
+        for (int i = 0; i < floors.length; i++) {
+            elevator.addCall(floors[i], directions[i]);
+        }
+    }
+    
+    @Benchmark
+    public void callsBatch() {
+        elevator.addCalls(floors, directions);
+    }
+    
+    @Benchmark
+    public void destinationsOneByOne() {
+        for (int floor : floors) {
+            elevator.addDestination(floor);
+        }
+    }
+    
+    @Benchmark
+    public void destinationsBatch() {
+        elevator.addDestinations(floors);
+    }
+}
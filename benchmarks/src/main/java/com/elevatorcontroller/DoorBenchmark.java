@@ -0,0 +1,60 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Door signaling latency: the benchmark thread opens the door and waits
+ * until a rider thread, blocked in waitForDoorOpen, has seen it and closed
+ * it again. One operation is a full open/close signaling round trip.
+ * 
+ * readState measures the lock-free state read polled by riders and monitors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoorBenchmark {
+    
+    private Door door;
+    private Thread rider;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        door = new Door(1, new Elevator(0, 2));
+        door.setEventLog(EventLog.silent());
+        rider = new Thread(() -> {
+            try {
+                while (true) {
+                    door.waitForDoorOpen();
+                    door.beginClosing();
+                    door.completeClosing();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "BenchmarkRider");
+        rider.setDaemon(true);
+        rider.start();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rider.interrupt();
+    }
+    
+    @Benchmark
+    public void openCloseRoundTrip() throws InterruptedException {
+        door.beginOpening();
+        door.completeOpening();
+        door.waitForDoorClosed();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Door.State readState() {
+        return door.getState();
+    }
+}
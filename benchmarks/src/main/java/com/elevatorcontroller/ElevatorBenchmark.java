@@ -0,0 +1,63 @@
+package com.elevatorcontroller;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Single-threaded benchmarks of the Elevator scheduling decisions:
+ * chooseDirection and the nearest-request lookups, for several building
+ * heights and numbers of pending requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorBenchmark {
+    
+    @Param({"10", "50", "200"})
+    public int floors;
+    
+    @Param({"1", "8", "32"})
+    public int requests;
+    
+    private Elevator elevator;
+    private int middleFloor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        elevator = new Elevator(0, floors - 1);
+        middleFloor = floors / 2;
+        
+        // Park the car in the middle of the building
+        elevator.setDirection(Elevator.Direction.UP);
+        for (int floor = 0; floor < middleFloor; floor++) {
+            elevator.moveOneFloor();
+        }
+        
+        Random random = new Random(42);
+        for (int i = 0; i < requests; i++) {
+            int floor = random.nextInt(floors);
+            if (floor != middleFloor) {
+                elevator.addCall(floor);
+            }
+        }
+    }
+    
+    @Benchmark
+    public Elevator.Direction chooseDirection() {
+        return elevator.chooseDirection();
+    }
+    
+    @Benchmark
+    public int nextRequestAbove() {
+        return elevator.nextRequestAbove(middleFloor);
+    }
+    
+    @Benchmark
+    public int nextRequestBelow() {
+        return elevator.nextRequestBelow(middleFloor);
+    }
+}
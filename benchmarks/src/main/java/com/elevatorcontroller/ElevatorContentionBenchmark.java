@@ -0,0 +1,63 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Contended benchmarks of Elevator request ingestion: rider threads add
+ * calls and destinations while a controller thread keeps choosing a
+ * direction and clearing the current floor.
+ * 
+ * The number of rider threads can be changed with "-tg &lt;riders&gt;,1".
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevatorContentionBenchmark {
+    
+    @Param({"10", "200"})
+    public int floors;
+    
+    private Elevator elevator;
+    
+    /**
+     * Per-thread floor generator (xorshift, no shared state)
+     */
+    @State(Scope.Thread)
+    public static class FloorSource {
+        private int seed = (int) Thread.currentThread().getId() * 0x9E3779B9 | 1;
+        
+        int next(int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            return (seed & Integer.MAX_VALUE) % bound;
+        }
+    }
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        elevator = new Elevator(0, floors - 1);
+        elevator.setDirection(Elevator.Direction.UP);
+    }
+    
+    @Benchmark
+    @Group("ingestion")
+    @GroupThreads(3)
+    public void riders(FloorSource source) {
+        elevator.addCall(source.next(floors));
+        elevator.addDestination(source.next(floors));
+    }
+    
+    @Benchmark
+    @Group("ingestion")
+    @GroupThreads(1)
+    public Elevator.Direction controller() {
+        Elevator.Direction direction = elevator.chooseDirection();
+        elevator.clearCallsAndDestinationsAtCurrentFloor();
+        return direction;
+    }
+}
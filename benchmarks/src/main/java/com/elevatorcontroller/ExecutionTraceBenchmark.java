@@ -0,0 +1,79 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of ExecutionTrace recording under contention, and of reading
+ * a snapshot of a large trace, in both storage modes.
+ * 
+ * The number of recording threads can be changed with "-t &lt;threads&gt;".
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionTraceBenchmark {
+    
+    // Events recorded by one thread before it clears the trace, to bound memory
+    private static final int EVENTS_BEFORE_CLEAR = 1 << 20;
+    
+    @State(Scope.Benchmark)
+    public static class SharedTrace {
+        @Param({"OBJECTS", "COLUMNAR"})
+        public ExecutionTrace.StorageMode mode;
+        
+        ExecutionTrace trace;
+        
+        @Setup(Level.Iteration)
+        public void setUp() {
+            trace = new ExecutionTrace(new VirtualClock(), mode);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Producer {
+        int recorded = 0;
+    }
+    
+    @State(Scope.Benchmark)
+    public static class FilledTrace {
+        @Param({"10000", "1000000"})
+        public int events;
+        
+        @Param({"OBJECTS", "COLUMNAR"})
+        public ExecutionTrace.StorageMode mode;
+        
+        ExecutionTrace trace;
+        
+        @Setup(Level.Trial)
+        public void setUp() {
+            trace = new ExecutionTrace(new VirtualClock(), mode);
+            for (int i = 0; i < events; i++) {
+                trace.recordDoorEvent(i % 20, "ouverture");
+            }
+        }
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public void recordEvent(SharedTrace shared, Producer producer) {
+        shared.trace.recordElevatorEvent("Etage: 1");
+        if (++producer.recorded == EVENTS_BEFORE_CLEAR) {
+            producer.recorded = 0;
+            shared.trace.clear();
+        }
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @BenchmarkMode(Mode.AverageTime)
+    public long iterateSnapshot(FilledTrace filled) {
+        long sum = 0;
+        for (ExecutionTrace.TraceEvent event : filled.trace.snapshot()) {
+            sum += event.timestamp;
+        }
+        return sum;
+    }
+}
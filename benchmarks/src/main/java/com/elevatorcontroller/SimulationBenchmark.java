@@ -0,0 +1,61 @@
+package com.elevatorcontroller;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * End-to-end throughput: wall-clock time to simulate a building in virtual
+ * time over a fixed span (the arrivals, then one hour to serve the last riders),
+ * for several building heights, numbers of cars and numbers of riders.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+    
+    // Time between two rider arrivals, in simulated milliseconds
+    private static final long ARRIVAL_INTERVAL = 2000;
+    
+    @Param({"10", "40"})
+    public int floors;
+    
+    @Param({"1", "4"})
+    public int cars;
+    
+    @Param({"100", "1000"})
+    public int riders;
+    
+    private SystemController system;
+    
+    @Setup(Level.Invocation)
+    public void setUp() {
+        system = new SystemController(0, floors - 1, cars, new VirtualClock());
+        system.setEventLog(EventLog.silent());
+        system.start();
+        
+        Random random = new Random(42);
+        for (int i = 0; i < riders; i++) {
+            int start = random.nextInt(floors);
+            int destination = (start + 1 + random.nextInt(floors - 1)) % floors;
+            Elevator.Direction direction = destination > start ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+            User user = new User(i, start, destination, direction, system);
+            system.getScheduler().schedule(i * ARRIVAL_INTERVAL, () -> system.addRider(user));
+        }
+    }
+    
+    @Benchmark
+    public long simulate() throws InterruptedException {
+        // Arrivals, plus one simulated hour to serve the last riders
+        system.runFor(riders * ARRIVAL_INTERVAL + TimeUnit.HOURS.toMillis(1));
+        return system.getScheduler().now();
+    }
+    
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        system.close();
+    }
+}
@@ -0,0 +1,265 @@
+package com.elevatorcontroller;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous EventLog: callers only enqueue, a single writer thread formats
+ * the events and writes them in batches.
+ * 
+ * Variables:
+ * - queue: bounded queue of pending events
+ * - out: the stream receiving the formatted lines (optional)
+ * - trace: the execution trace receiving the events (optional)
+ * - traceFile: the binary trace file receiving the events, off the heap (optional)
+ * - policy: what callers do when the queue is full (drop the event or block)
+ * 
+ * Behavior:
+ * - Wait for at least one event, then drain up to MAX_BATCH events
+ * - Format the batch into one buffer and write it with a single call and flush
+ * - Record the batch into the execution trace and the trace file, in queue order
+ * - A batch that fails to be written is counted and skipped; if the writer thread
+ *   ends anyway, callers drop their events instead of blocking on a full queue
+ */
+public class AsyncEventLog implements EventLog, AutoCloseable {
+    
+    /**
+     * What a caller does when the queue is full
+     */
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+    
+    /**
+     * Holder for the shared console log, created on first use
+     */
+    static final class Console {
+        static final AsyncEventLog INSTANCE =
+            new AsyncEventLog(System.out, null, new RealTimeClock(), 1 << 16, OverflowPolicy.BLOCK);
+    }
+    
+    /**
+     * Inner class representing a pending event
+     */
+    private static final class Entry {
+        final long timestamp;
+        final char eventType;
+        final String actor;
+        final String action;
+        final Object detail;
+        
+        Entry(long timestamp, char eventType, String actor, String action, Object detail) {
+            this.timestamp = timestamp;
+            this.eventType = eventType;
+            this.actor = actor;
+            this.action = action;
+            this.detail = detail;
+        }
+    }
+    
+    private static final int MAX_BATCH = 1024;
+    // How often a caller blocked on a full queue checks that the writer is still alive
+    private static final long WRITER_CHECK_MILLIS = 100;
+    
+    private final BlockingQueue<Entry> queue;
+    private final PrintStream out;
+    private final ExecutionTrace trace;
+    private final TraceFileWriter traceFile;
+    private final Clock clock;
+    private final OverflowPolicy policy;
+    private final Thread writer;
+    private volatile boolean closed = false;
+    
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private long written = 0;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchWritten = lock.newCondition();
+    
+    /**
+     * Constructor for AsyncEventLog
+     * @param out the stream receiving formatted lines, or null
+     * @param trace the execution trace receiving the events, or null
+     * @param clock the clock giving event timestamps
+     * @param capacity the maximum number of pending events
+     * @param policy what callers do when the queue is full
+     */
+    public AsyncEventLog(PrintStream out, ExecutionTrace trace, Clock clock, int capacity,
+                         OverflowPolicy policy) {
+        this(out, trace, null, clock, capacity, policy);
+    }
+    
+    /**
+     * Constructor for AsyncEventLog also persisting the events to a binary trace file.
+     * The file stays open: close it after closing the log.
+     * @param out the stream receiving formatted lines, or null
+     * @param trace the execution trace receiving the events, or null
+     * @param traceFile the trace file receiving the events, or null
+     * @param clock the clock giving event timestamps
+     * @param capacity the maximum number of pending events
+     * @param policy what callers do when the queue is full
+     */
+    public AsyncEventLog(PrintStream out, ExecutionTrace trace, TraceFileWriter traceFile, Clock clock,
+                         int capacity, OverflowPolicy policy) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.out = out;
+        this.trace = trace;
+        this.traceFile = traceFile;
+        this.clock = clock;
+        this.policy = policy;
+        this.writer = new Thread(this::writerLoop, "EventLogWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    @Override
+    public void log(char eventType, String actor, String action, Object detail) {
+        if (closed) {
+            return;
+        }
+        Entry entry = new Entry(clock.now(), eventType, actor, action, detail);
+        if (policy == OverflowPolicy.DROP || !writer.isAlive()) {
+            if (!queue.offer(entry)) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } else {
+            try {
+                // Nobody would make room if the writer ended: check it while waiting
+                while (!queue.offer(entry, WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!writer.isAlive()) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        accepted.incrementAndGet();
+    }
+    
+    /**
+     * Wait until every event accepted so far has been written
+     */
+    public void flush() throws InterruptedException {
+        long target = accepted.get();
+        lock.lock();
+        try {
+            while (written < target && writer.isAlive()) {
+                batchWritten.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Stop accepting events, write the pending ones and stop the writer thread.
+     * If the caller is interrupted, the writer is stopped without waiting and the
+     * interrupt status is kept.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flush();
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+            return;
+        }
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Get the number of events dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    /**
+     * Get the number of batches that could not be written (their events are lost)
+     */
+    public long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+    
+    /**
+     * Writer thread behavior
+     */
+    private void writerLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder buffer = new StringBuilder();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                try {
+                    writeBatch(batch, buffer);
+                } catch (RuntimeException e) {
+                    // A full or closed trace file, or a failing stream: skip the batch, keep writing
+                    failedBatches.incrementAndGet();
+                }
+                
+                lock.lock();
+                try {
+                    written += batch.size();
+                    batchWritten.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } finally {
+            lock.lock();
+            try {
+                batchWritten.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Format and write one batch of events
+     */
+    private void writeBatch(List<Entry> batch, StringBuilder buffer) {
+        buffer.setLength(0);
+        for (Entry entry : batch) {
+            String action = entry.detail == null ? entry.action : entry.action + entry.detail;
+            if (trace != null) {
+                trace.record(entry.timestamp, entry.eventType, entry.actor, action);
+            }
+            if (traceFile != null) {
+                traceFile.append(entry.timestamp, entry.eventType, entry.actor, action);
+            }
+            if (out != null) {
+                buffer.append(entry.eventType).append(' ').append(entry.actor).append(": ")
+                      .append(entry.eventType).append(' ').append(action).append('\n');
+            }
+        }
+        if (out != null) {
+            out.print(buffer);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.elevatorcontroller;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * CarController class running the movement loop of one car in a group.
+ * 
+ * Variables:
+ * - elevator: the car state (floor, direction, calls, destinations)
+ * - doors: the car doors, one per floor
+ * - interlock: whether the car is moving and which of its doors is in use, in one atomic word
+ * 
+ * Behavior:
+ * - Choose a direction and travel to the next stop in one segment, following the
+ *   acceleration and full-speed profile of the car (see TravelSegment)
+ * - Report each floor passed; only look for a new stop when a request was added
+ *   or cleared, and take it if the car can still brake for it
+ * - Stop at call and destination floors and operate the door
+ * - Park when there is no request, until a new request wakes the car up
+ * - There is never more than one door of this car open at a time
+ * - The car is idle when it is parked with no request and no event-driven rider;
+ *   the idle listener runs whenever it may have become idle
+ */
+final class CarController {
+    
+    private final int carIndex;
+    private final Elevator elevator;
+    private final Map<Integer, Door> doors;
+    private final EventScheduler scheduler;
+    private final String name;
+    private final SystemMetrics metrics;
+    private volatile EventLog eventLog = EventLog.console();
+    private volatile Timings timings = Timings.DEFAULTS;
+    
+    private final AtomicBoolean parked = new AtomicBoolean(false);
+    private final AtomicInteger riderCount = new AtomicInteger();
+    private volatile Runnable idleListener = () -> { };
+    // Re-dispatches a rider left behind by the full car
+    private volatile Consumer<Rider> recallHandler;
+    private final CarInterlock interlock;
+    
+    // Current travel segment and the request version it was planned for (accessed from the scheduler only)
+    private TravelSegment segment;
+    private int plannedVersion;
+    
+    // Riders driven by door events, by start and destination floor (accessed from the scheduler only)
+    private final Map<Integer, List<Rider>> waitingRiders = new HashMap<>();
+    private final Map<Integer, List<Rider>> ridingRiders = new HashMap<>();
+    
+    // Default time constants (in milliseconds), see Timings
+    static final long MOVEMENT_TIME = 200;   // Time between floor movements at full speed
+    static final long ACCELERATION_TIME = 0; // Time to reach full speed (0: constant speed)
+    static final long STOP_TIME = 300;       // Time for elevator to stop and operate doors
+    static final long DOOR_DWELL_TIME = 300; // Time the door is kept open at a stop
+    
+    /**
+     * Constructor for CarController
+     * @param carIndex the index of the car in the group
+     * @param lowestFloor the lowest floor served by the car
+     * @param highestFloor the highest floor served by the car
+     * @param scheduler the scheduler shared by the whole group
+     * @param metrics the metrics of the building
+     */
+    CarController(int carIndex, int lowestFloor, int highestFloor, EventScheduler scheduler,
+                  SystemMetrics metrics) {
+        this.carIndex = carIndex;
+        this.elevator = new Elevator(lowestFloor, highestFloor);
+        this.doors = new HashMap<>();
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.interlock = new CarInterlock(lowestFloor);
+        this.name = carIndex == 0 ? "Ascenseur" : "Ascenseur[" + carIndex + "]";
+        
+        // Create doors for each floor
+        for (int floor = lowestFloor; floor <= highestFloor; floor++) {
+            doors.put(floor, new Door(floor, elevator));
+        }
+        
+        elevator.setRequestListener(this::wakeUp);
+        // Alone, the car can only be called again
+        this.recallHandler = rider -> {
+            elevator.addCall(rider.getStartFloor(), rider.getDirection());
+            addWaitingRider(rider);
+        };
+    }
+    
+    /**
+     * Start the movement loop of this car
+     */
+    void start() {
+        scheduler.schedule(0, this::controllerStep);
+    }
+    
+    /**
+     * Resume the movement loop if the car is parked.
+     * Called on every new request; harmless when the car is already running.
+     */
+    void wakeUp() {
+        if (parked.compareAndSet(true, false)) {
+            scheduler.schedule(0, this::controllerStep);
+        }
+    }
+    
+    /**
+     * Check if the car is parked waiting for a request
+     */
+    boolean isParked() {
+        return parked.get();
+    }
+    
+    /**
+     * Add an event-driven user waiting for this car (virtual-time mode)
+     */
+    void addWaitingRider(User user) {
+        addWaitingRider(new UserRider(user));
+    }
+    
+    /**
+     * Add an event-driven rider waiting for this car (from the scheduler)
+     */
+    void addWaitingRider(Rider rider) {
+        riderCount.incrementAndGet();
+        Door startDoor = doors.get(rider.getStartFloor());
+        Elevator.Direction served = elevator.getDirection();
+        if (startDoor.isOpen() && (served == Elevator.Direction.NONE || served == rider.getDirection())
+                && elevator.tryBoard()) {
+            // The door is already open: the rider does not need to wait for the next stop
+            board(rider);
+        } else {
+            waitingRiders.computeIfAbsent(rider.getStartFloor(), f -> new ArrayList<>()).add(rider);
+        }
+    }
+    
+    /**
+     * Check if the car is parked with no request and no event-driven rider
+     */
+    boolean isIdle() {
+        return parked.get() && riderCount.get() == 0 && elevator.getRequestCount() == 0;
+    }
+    
+    /**
+     * Set the action run whenever the car may have become idle
+     */
+    void setIdleListener(Runnable idleListener) {
+        this.idleListener = idleListener;
+    }
+    
+    /**
+     * Set the action re-dispatching an event-driven rider left behind because the car was full
+     */
+    void setRecallHandler(Consumer<Rider> recallHandler) {
+        this.recallHandler = recallHandler;
+    }
+    
+    /**
+     * Set the log receiving the events of this car and its doors
+     */
+    void setEventLog(EventLog eventLog) {
+        this.eventLog = eventLog;
+        for (Door door : doors.values()) {
+            door.setEventLog(eventLog);
+        }
+    }
+    
+    /**
+     * Set the durations of the motions of this car and its doors
+     */
+    void setTimings(Timings timings) {
+        this.timings = timings;
+        for (Door door : doors.values()) {
+            door.setTimings(timings);
+        }
+    }
+    
+    int getCarIndex() {
+        return carIndex;
+    }
+    
+    Elevator getElevator() {
+        return elevator;
+    }
+    
+    Door getDoor(int floor) {
+        return doors.get(floor);
+    }
+    
+    /**
+     * Check if a door of this car is currently open
+     */
+    boolean isDoorOpen() {
+        Door door = getOpenDoor();
+        return door != null && door.isOpen();
+    }
+    
+    /**
+     * Get the door of this car currently in use, from the start of its opening
+     * to the end of its closing (if any)
+     */
+    Door getOpenDoor() {
+        int floor = interlock.getDoorFloor();
+        return floor == CarInterlock.NO_DOOR ? null : doors.get(floor);
+    }
+    
+    /**
+     * Check if this car is moving
+     */
+    boolean isMoving() {
+        return interlock.isMoving();
+    }
+    
+    /**
+     * Wait until the door of this car at a specific floor is open
+     */
+    void waitForDoorOpen(int floor) throws InterruptedException {
+        doors.get(floor).waitForDoorOpen();
+    }
+    
+    /**
+     * Main elevator controller behavior: choose a direction and start moving one floor
+     */
+    private void controllerStep() {
+        // Choose direction based on calls and destinations
+        Elevator.Direction nextDirection = elevator.chooseDirection();
+        
+        if (nextDirection != Elevator.Direction.NONE) {
+            elevator.setDirection(nextDirection);
+            interlock.startMoving();
+            elevator.setMoving(true);
+            metrics.carBusy(carIndex);
+            eventLog.log('+', name, "direction: ", nextDirection);
+            
+            // Travel to the next stop
+            int floor = elevator.getFloor();
+            int target = elevator.nextStopFrom(floor + (nextDirection == Elevator.Direction.UP ? 1 : -1));
+            if (target == Elevator.NO_REQUEST) {
+                target = floor + (nextDirection == Elevator.Direction.UP ? 1 : -1);
+            }
+            startSegment(new TravelSegment(floor, target, 0, scheduler.now(), timings));
+        } else if (elevator.shouldStopAtCurrentFloor()) {
+            // Call on the current floor, serve it without moving
+            metrics.carBusy(carIndex);
+            stopAtCurrentFloor();
+        } else {
+            // No calls or destinations, park until a request wakes the car up
+            interlock.stop();
+            elevator.setMoving(false);
+            metrics.carIdle(carIndex);
+            parked.set(true);
+            
+            // A request added since chooseDirection may have missed the parked flag.
+            // A full car ignores its hall calls: it waits for an alight to wake it up.
+            if (elevator.getActiveRequestCount() > 0) {
+                wakeUp();
+            } else {
+                idleListener.run();
+            }
+        }
+    }
+    
+    /**
+     * Start traveling a segment: schedule the pass of its first floor
+     */
+    private void startSegment(TravelSegment next) {
+        segment = next;
+        plannedVersion = elevator.getRequestVersion();
+        scheduleNextFloor();
+    }
+    
+    private void scheduleNextFloor() {
+        int nextFloor = elevator.getFloor() + segment.getStep();
+        scheduler.schedule(segment.timeAt(nextFloor) - scheduler.now(), this::floorReached);
+    }
+    
+    /**
+     * Complete the move to the next floor of the segment: stop at its target, or
+     * look for a new stop if the requests changed, then keep traveling
+     */
+    private void floorReached() {
+        int previousFloor = elevator.getFloor();
+        elevator.moveOneFloor();
+        int floor = elevator.getFloor();
+        if (floor != previousFloor) {
+            metrics.recordFloorTraveled(carIndex);
+        }
+        eventLog.log('+', name, "Etage: ", floor);
+        
+        if (floor == segment.getTargetFloor() || floor == previousFloor) {
+            // The car has stopped (at the target, or at the end of the shaft)
+            segment = null;
+            if (elevator.shouldStopAtCurrentFloor()) {
+                stopAtCurrentFloor();
+            } else {
+                controllerStep();
+            }
+            return;
+        }
+        
+        int version = elevator.getRequestVersion();
+        if (version != plannedVersion) {
+            // Look for the first stop the car can still brake for
+            plannedVersion = version;
+            int next = elevator.nextStopFrom(floor + segment.getStep() * segment.stoppingFloorsAt(floor));
+            if (next == floor) {
+                segment = null;
+                stopAtCurrentFloor();
+                return;
+            }
+            if (next != Elevator.NO_REQUEST && next != segment.getTargetFloor()) {
+                segment = new TravelSegment(floor, next, segment.speedAt(floor), scheduler.now(), timings);
+            }
+        }
+        scheduleNextFloor();
+    }
+    
+    /**
+     * Stop at the current floor, operate the door, then resume
+     */
+    private void stopAtCurrentFloor() {
+        int floor = elevator.getFloor();
+        interlock.stop();
+        elevator.setMoving(false);
+        metrics.recordStop(carIndex);
+        
+        // Announce the direction served at this stop before the door opens
+        elevator.chooseServiceDirection();
+        eventLog.log('+', name, "arrêt à l'étage ", floor);
+        
+        List<Rider> arriving = ridingRiders.get(floor);
+        if (arriving != null) {
+            for (Rider rider : arriving) {
+                rider.onDestinationReached();
+            }
+        }
+        
+        operateDoor(floor, () -> {
+            eventLog.log('+', name, "fin de l'arrêt");
+            scheduler.schedule(timings.getStopTime(), this::controllerStep);
+        });
+    }
+    
+    /**
+     * Operate the door at the specified floor: open it, keep it open for a while,
+     * close it, then run the given action once the door is fully closed
+     */
+    private void operateDoor(int floor, Runnable afterClosing) {
+        Door door = doors.get(floor);
+        interlock.useDoor(floor);
+        
+        door.scheduleOpen(scheduler, () -> {
+            // Clear calls and destinations for this floor once the door is open,
+            // so requests made while it closes trigger a new stop
+            elevator.clearCallsAndDestinationsAtCurrentFloor();
+            exchangeRiders(floor);
+            
+            // Keep door open for a while, then close it
+            scheduler.schedule(timings.getDoorDwellTime(), () -> door.scheduleClose(scheduler, () -> {
+                interlock.releaseDoor(floor);
+                afterClosing.run();
+            }));
+        });
+    }
+    
+    /**
+     * Let event-driven riders leave and enter at a floor whose door just opened,
+     * as one batch per door cycle. Only riders going in the direction served at
+     * this stop enter, in their order of arrival, as long as the car has room;
+     * the riders left behind call the elevator again through the dispatcher.
+     */
+    private void exchangeRiders(int floor) {
+        // Riders at their destination leave first
+        List<Rider> leaving = ridingRiders.remove(floor);
+        if (leaving != null) {
+            for (Rider rider : leaving) {
+                rider.onDestinationDoorOpened();
+            }
+            elevator.alight(leaving.size());
+            for (int i = 0; i < leaving.size(); i++) {
+                riderDone();
+            }
+        }
+        
+        List<Rider> waiting = waitingRiders.get(floor);
+        if (waiting == null) {
+            return;
+        }
+        Elevator.Direction served = elevator.getDirection();
+        List<Rider> boarding = new ArrayList<>();
+        for (Rider rider : waiting) {
+            if (served == Elevator.Direction.NONE || rider.getDirection() == served) {
+                boarding.add(rider);
+            }
+        }
+        int admitted = elevator.board(boarding.size());
+        waiting.removeAll(boarding);
+        if (waiting.isEmpty()) {
+            waitingRiders.remove(floor);
+        }
+        for (Rider rider : boarding.subList(0, admitted)) {
+            board(rider);
+        }
+        if (admitted < boarding.size()) {
+            // The car is full: the riders left behind call again, maybe for another car
+            eventLog.log('+', name, "complet à l'étage ", floor);
+            for (Rider rider : boarding.subList(admitted, boarding.size())) {
+                recallHandler.accept(rider);
+                riderDone();
+            }
+        }
+    }
+    
+    /**
+     * Let a rider enter at an open door, once room was reserved for it
+     */
+    private void board(Rider rider) {
+        if (rider.onStartDoorOpened()) {
+            ridingRiders.computeIfAbsent(rider.getDestinationFloor(), f -> new ArrayList<>()).add(rider);
+        } else {
+            elevator.alight(1);
+            riderDone();
+        }
+    }
+    
+    /**
+     * Forget a rider whose journey is over (arrived or declined to enter)
+     */
+    private void riderDone() {
+        if (riderCount.decrementAndGet() == 0) {
+            idleListener.run();
+        }
+    }
+    
+    /**
+     * Adapter driving a User through its event hooks
+     */
+    private static final class UserRider implements Rider {
+        private final User user;
+        
+        UserRider(User user) {
+            this.user = user;
+        }
+        
+        @Override
+        public int getStartFloor() {
+            return user.getStartFloor();
+        }
+        
+        @Override
+        public int getDestinationFloor() {
+            return user.getDestinationFloor();
+        }
+        
+        @Override
+        public Elevator.Direction getDirection() {
+            return user.getDirection();
+        }
+        
+        @Override
+        public boolean onStartDoorOpened() {
+            return user.onStartDoorOpened();
+        }
+        
+        @Override
+        public void onDestinationReached() {
+            user.onDestinationReached();
+        }
+        
+        @Override
+        public void onDestinationDoorOpened() {
+            user.onDestinationDoorOpened();
+        }
+        
+        @Override
+        public int recall() {
+            return user.recallElevator();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CarInterlock class keeping the safety state of one car in a single atomic word.
+ *
+ * Variables:
+ * - word: bit 0 is set while the car is moving, the other bits hold the floor
+ *   of the door in use (from the start of its opening to the end of its closing)
+ *   plus one, or 0 when every door is closed
+ *
+ * Behavior:
+ * - The car can only start moving when no door is in use
+ * - A door can only be used when the car is stopped and no other door is in use
+ * - Every change is a compare-and-set on the word, so both invariants hold
+ *   atomically; a forbidden change throws IllegalStateException
+ * - Reads are a single volatile read, without locks
+ */
+final class CarInterlock {
+
+    /** Returned by getDoorFloor when no door is in use */
+    static final int NO_DOOR = Integer.MIN_VALUE;
+
+    private static final int MOVING = 1;
+
+    private final int lowestFloor;
+    private final AtomicInteger word = new AtomicInteger();
+
+    /**
+     * Constructor for CarInterlock
+     * @param lowestFloor the lowest floor served by the car
+     */
+    CarInterlock(int lowestFloor) {
+        this.lowestFloor = lowestFloor;
+    }
+
+    /**
+     * Mark the car as moving
+     * @throws IllegalStateException if a door is in use
+     */
+    void startMoving() {
+        while (true) {
+            int current = word.get();
+            if (doorBits(current) != 0) {
+                throw new IllegalStateException("Car cannot move with the door of floor "
+                                                + floorOf(current) + " in use");
+            }
+            if (word.compareAndSet(current, current | MOVING)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Mark the car as stopped
+     */
+    void stop() {
+        int current = word.get();
+        while (!word.compareAndSet(current, current & ~MOVING)) {
+            current = word.get();
+        }
+    }
+
+    /**
+     * Start using the door of a floor
+     * @throws IllegalStateException if the car is moving or another door is in use
+     */
+    void useDoor(int floor) {
+        int next = (floor - lowestFloor + 1) << 1;
+        if (!word.compareAndSet(0, next)) {
+            throw new IllegalStateException("Cannot use the door of floor " + floor + ": "
+                                            + describe(word.get()));
+        }
+    }
+
+    /**
+     * Release the door of a floor once it is fully closed
+     * @throws IllegalStateException if that door is not the one in use
+     */
+    void releaseDoor(int floor) {
+        int current = (floor - lowestFloor + 1) << 1;
+        if (!word.compareAndSet(current, 0)) {
+            throw new IllegalStateException("Cannot release the door of floor " + floor + ": "
+                                            + describe(word.get()));
+        }
+    }
+
+    /**
+     * Check if the car is moving
+     */
+    boolean isMoving() {
+        return (word.get() & MOVING) != 0;
+    }
+
+    /**
+     * Get the floor of the door in use, or NO_DOOR
+     */
+    int getDoorFloor() {
+        return floorOf(word.get());
+    }
+
+    private int floorOf(int value) {
+        int door = doorBits(value);
+        return door == 0 ? NO_DOOR : door - 1 + lowestFloor;
+    }
+
+    private static int doorBits(int value) {
+        return value >>> 1;
+    }
+
+    private String describe(int value) {
+        int floor = floorOf(value);
+        return ((value & MOVING) != 0 ? "moving" : "stopped")
+            + (floor == NO_DOOR ? "" : ", door of floor " + floor + " in use");
+    }
+}
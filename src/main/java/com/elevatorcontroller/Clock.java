@@ -0,0 +1,29 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Clock abstraction driving the EventScheduler.
+ * 
+ * Implementations:
+ * - RealTimeClock: real (monotonic) time, the scheduler really waits between events
+ * - VirtualClock: simulated time, the scheduler jumps straight to the next event
+ */
+public interface Clock {
+    
+    /**
+     * Get the current time in milliseconds
+     */
+    long now();
+    
+    /**
+     * Wait until the given time is reached or the condition is signaled.
+     * The caller must hold the lock owning the condition.
+     */
+    void awaitUntil(long deadline, Condition condition) throws InterruptedException;
+    
+    /**
+     * Check if this clock simulates time instead of following the wall clock
+     */
+    boolean isVirtual();
+}
@@ -0,0 +1,28 @@
+package com.elevatorcontroller;
+
+import java.util.List;
+
+/**
+ * Strategy assigning hall calls to the cars of a group.
+ */
+public interface Dispatcher {
+    
+    /**
+     * Choose the car that should serve a hall call
+     * @param floor the floor of the call
+     * @param direction the direction requested by the user
+     * @param cars the elevators of the group, indexed by car number
+     * @return the index of the chosen car
+     */
+    int assignCar(int floor, Elevator.Direction direction, List<Elevator> cars);
+    
+    /**
+     * Choose the car that should serve a hall call of a burst, whose earlier calls
+     * are assigned but not yet added to the cars
+     * @param assignedCalls the number of calls of the burst assigned to each car so far
+     * @return the index of the chosen car
+     */
+    default int assignCar(int floor, Elevator.Direction direction, List<Elevator> cars, int[] assignedCalls) {
+        return assignCar(floor, direction, cars);
+    }
+}
@@ -1,5 +1,6 @@
 package com.elevatorcontroller;
 
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -8,6 +9,7 @@ import java.util.concurrent.locks.ReentrantLock;
  * 
  * Variables:
  * - floor: the door floor
+ * - state: CLOSED, OPENING, OPEN or CLOSING
  * 
  * Behavior:
  * - Wait until the elevator has stopped at the floor indicated by the door
@@ -15,21 +17,45 @@ import java.util.concurrent.locks.ReentrantLock;
  * - Wait a certain amount of time
  * - Close the door
  * - Signal to the elevator that it can restart
+ * 
+ * The door is a state machine: CLOSED -> OPENING -> OPEN -> CLOSING -> CLOSED.
+ * Transitions are atomic (compare-and-set) and the state is read without locks.
+ * The motions are timed by the event scheduler (or slept by the blocking
+ * openDoor/closeDoor) without holding any lock; the lock is only taken to wake
+ * up the threads waiting for a transition. The blocking methods may race with
+ * each other: a caller finding the door in motion waits for that motion to end
+ * instead of failing.
  */
 public class Door {
     
+    /**
+     * State of the door
+     */
+    public enum State {
+        /** Fully closed */
+        CLOSED,
+        /** Opening motion: users cannot enter yet */
+        OPENING,
+        /** Fully open: users enter and exit */
+        OPEN,
+        /** Closing: users can no longer enter, the last users exit */
+        CLOSING
+    }
+    
     private final int floor;
     private final Elevator elevator;
-    private volatile boolean isOpen = false;
-    private volatile boolean isClosing = false;
+    private final String actor;
+    private volatile EventLog eventLog = EventLog.console();
+    private volatile Timings timings = Timings.DEFAULTS;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
     
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition doorStateChanged = lock.newCondition();
     
-    // Time constants (in milliseconds)
-    private static final long DOOR_OPEN_TIME = 100; // Time door stays open
-    private static final long DOOR_OPENING_TIME = 50;   // Time to open door
-    private static final long DOOR_CLOSING_TIME = 50;   // Time to close door
+    // Default time constants (in milliseconds), see Timings
+    static final long DOOR_OPENING_TIME = 50;   // Time to open door
+    static final long DOOR_CLOSING_TIME = 50;   // Time to close door
+    static final long DOOR_EXIT_TIME = 50;      // Time left for users to exit while closing
     
     /**
      * Constructor for Door
@@ -39,81 +65,202 @@ public class Door {
     public Door(int floor, Elevator elevator) {
         this.floor = floor;
         this.elevator = elevator;
+        this.actor = "Porte[" + floor + "]";
     }
     
     /**
      * Execute the door behavior:
      * 1. Wait until the elevator has stopped at the floor
      * 2. Open the door
-     * 3. Wait a certain amount of time
+     * 3. Keep it open for the dwell time
      * 4. Close the door
      * 5. Signal that the elevator can restart
      */
     public void operateDoor() throws InterruptedException {
-        try {
-            // Wait until elevator reaches this floor
-            elevator.waitForFloor(floor);
-            
-            // Open the door
-            openDoor();
-            
-            // Wait a certain amount of time
-            Thread.sleep(DOOR_OPEN_TIME);
-            
-            // Close the door
-            closeDoor();
-            
-            // Signal that elevator can restart (clearing destinations/calls already done)
-        } catch (InterruptedException e) {
-            throw e;
+        // Wait until elevator reaches this floor
+        elevator.waitForFloor(floor);
+        
+        // Open the door
+        openDoor();
+        
+        // Keep the door open
+        Thread.sleep(timings.getDoorDwellTime());
+        
+        // Close the door
+        closeDoor();
+        
+        // Signal that elevator can restart (clearing destinations/calls already done)
+    }
+    
+    /**
+     * Open the door at this floor, blocking the caller for the opening motion.
+     * No lock is held while waiting. Does nothing if the door is already open;
+     * if another thread is opening it, waits for that opening instead, and if
+     * it is closing, waits until it is closed before opening it.
+     */
+    public void openDoor() throws InterruptedException {
+        while (true) {
+            switch (state.get()) {
+                case OPEN:
+                    return;
+                case OPENING:
+                    awaitEndOf(State.OPENING);
+                    return;
+                case CLOSING:
+                    awaitEndOf(State.CLOSING);
+                    break;
+                case CLOSED:
+                    if (tryTransition(State.CLOSED, State.OPENING)) {
+                        Thread.sleep(timings.getDoorOpeningTime());
+                        completeOpening();
+                        return;
+                    }
+                    break;
+            }
         }
     }
     
     /**
-     * Open the door at this floor
+     * Close the door at this floor, blocking the caller for the closing motion
+     * and the exit time. Does nothing if the door is already closed; if another
+     * thread is closing it, waits until it is closed instead, and if it is
+     * opening, waits until it is open before closing it.
      */
-    public synchronized void openDoor() throws InterruptedException {
-        lock.lock();
-        try {
-            // Simulate door opening
-            Thread.sleep(DOOR_OPENING_TIME);
-            isOpen = true;
-            isClosing = false;
-            doorStateChanged.signalAll();
-            System.out.println("* Porte[" + floor + "]: * ouverture");
-        } finally {
-            lock.unlock();
+    public void closeDoor() throws InterruptedException {
+        while (true) {
+            switch (state.get()) {
+                case CLOSED:
+                    return;
+                case CLOSING:
+                    awaitEndOf(State.CLOSING);
+                    return;
+                case OPENING:
+                    awaitEndOf(State.OPENING);
+                    break;
+                case OPEN:
+                    Timings current = timings;
+                    Thread.sleep(current.getDoorClosingTime());
+                    if (!tryTransition(State.OPEN, State.CLOSING)) {
+                        // Another caller closed the door during the motion
+                        awaitEndOf(State.CLOSING);
+                        return;
+                    }
+                    eventLog.log('*', actor, "fermeture");
+                    // Wait briefly for users to exit
+                    Thread.sleep(current.getDoorExitTime());
+                    completeClosing();
+                    return;
+            }
         }
     }
     
     /**
-     * Close the door at this floor
+     * Open the door on the scheduler: start the opening motion now and complete it
+     * after the door opening time, then run the given action
+     */
+    void scheduleOpen(EventScheduler scheduler, Runnable whenOpen) {
+        beginOpening();
+        scheduler.schedule(timings.getDoorOpeningTime(), () -> {
+            completeOpening();
+            whenOpen.run();
+        });
+    }
+    
+    /**
+     * Close the door on the scheduler: the closing motion takes the door closing
+     * time, then users have the door exit time to exit before the door is closed
+     * and the given action runs
+     */
+    void scheduleClose(EventScheduler scheduler, Runnable whenClosed) {
+        Timings current = timings;
+        scheduler.schedule(current.getDoorClosingTime(), () -> {
+            beginClosing();
+            scheduler.schedule(current.getDoorExitTime(), () -> {
+                completeClosing();
+                whenClosed.run();
+            });
+        });
+    }
+    
+    /**
+     * Start the opening motion
+     */
+    void beginOpening() {
+        transition(State.CLOSED, State.OPENING);
+    }
+    
+    /**
+     * Mark the door as open once the opening motion is over
+     */
+    void completeOpening() {
+        transition(State.OPENING, State.OPEN);
+        eventLog.log('*', actor, "ouverture");
+    }
+    
+    /**
+     * Mark the door as closing once the closing motion is over
+     */
+    void beginClosing() {
+        transition(State.OPEN, State.CLOSING);
+        eventLog.log('*', actor, "fermeture");
+    }
+    
+    /**
+     * Mark the door as fully closed after users had time to exit
+     */
+    void completeClosing() {
+        transition(State.CLOSING, State.CLOSED);
+    }
+    
+    /**
+     * Move from one state to the next and wake up the waiting threads
+     * @throws IllegalStateException if the door is not in the expected state
      */
-    public synchronized void closeDoor() throws InterruptedException {
+    private void transition(State from, State to) {
+        if (!tryTransition(from, to)) {
+            throw new IllegalStateException(actor + " cannot go from " + state.get() + " to " + to);
+        }
+    }
+    
+    /**
+     * Move from one state to the next if the door is in the expected state,
+     * and wake up the waiting threads
+     * @return true if the transition was made
+     */
+    private boolean tryTransition(State from, State to) {
+        if (!state.compareAndSet(from, to)) {
+            return false;
+        }
         lock.lock();
         try {
-            // Simulate door closing
-            Thread.sleep(DOOR_CLOSING_TIME);
-            isOpen = false;
-            isClosing = true;
-            doorStateChanged.signalAll();
-            System.out.println("* Porte[" + floor + "]: * fermeture");
-            // Wait briefly for users to exit
-            Thread.sleep(50);
-            isClosing = false;
             doorStateChanged.signalAll();
         } finally {
             lock.unlock();
         }
+        return true;
     }
     
     /**
      * Wait until the door is open
      */
     public void waitForDoorOpen() throws InterruptedException {
+        awaitState(State.OPEN);
+    }
+    
+    /**
+     * Wait until the door is closed
+     */
+    public void waitForDoorClosed() throws InterruptedException {
+        awaitState(State.CLOSED);
+    }
+    
+    private void awaitState(State expected) throws InterruptedException {
+        if (state.get() == expected) {
+            return;
+        }
         lock.lock();
         try {
-            while (!isOpen) {
+            while (state.get() != expected) {
                 doorStateChanged.await();
             }
         } finally {
@@ -122,12 +269,12 @@ public class Door {
     }
     
     /**
-     * Wait until the door is closed
+     * Wait until the door has left the given motion state
      */
-    public void waitForDoorClosed() throws InterruptedException {
+    private void awaitEndOf(State motion) throws InterruptedException {
         lock.lock();
         try {
-            while (isOpen || isClosing) {
+            while (state.get() == motion) {
                 doorStateChanged.await();
             }
         } finally {
@@ -135,28 +282,39 @@ public class Door {
         }
     }
     
+    /**
+     * Get the current state of the door
+     */
+    public State getState() {
+        return state.get();
+    }
+    
     /**
      * Check if door is open
      */
     public boolean isOpen() {
-        lock.lock();
-        try {
-            return isOpen;
-        } finally {
-            lock.unlock();
-        }
+        return state.get() == State.OPEN;
     }
     
     /**
      * Check if door is closing
      */
     public boolean isClosing() {
-        lock.lock();
-        try {
-            return isClosing;
-        } finally {
-            lock.unlock();
-        }
+        return state.get() == State.CLOSING;
+    }
+    
+    /**
+     * Set the log receiving the door events
+     */
+    void setEventLog(EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+    
+    /**
+     * Set the durations of the door motions
+     */
+    void setTimings(Timings timings) {
+        this.timings = timings;
     }
     
     /**
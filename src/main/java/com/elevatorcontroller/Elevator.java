@@ -1,7 +1,10 @@
 package com.elevatorcontroller;
 
+import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -12,14 +15,23 @@ import java.util.concurrent.locks.ReentrantLock;
  * Variables:
  * - floor: the current elevator floor
  * - direction: the current direction of the elevator (UP, DOWN, or NONE)
- * - destinations: vector of destinations entered by users
- * - calls: vector of calls made by users
+ * - destinations: floors entered by users (bitset, see FloorIndex)
+ * - upCalls, downCalls: hall calls made by users going up or down
+ * - calls: hall calls without a direction, served whatever the travel direction
+ * - capacity, load: the number of riders the car can hold and holds
  * 
  * Behavior:
  * - Move up or down one floor depending on the direction
  * - Reverse direction if reaching highest or lowest floor
- * - Signal to open the door when reaching a call or destination floor
- * - Clear calls and destinations when stopping at a floor
+ * - Signal to open the door when reaching a destination, a call without direction,
+ *   a hall call in the travel direction, or an opposite hall call before reversing
+ * - Clear the destinations and the calls served when stopping at a floor
+ * - When the car is full, stop only for destinations: hall calls are passed by
+ * 
+ * Changes are made under the lock, but the frequent reads by riders and
+ * monitors are not: the floor and direction are published together in one
+ * volatile word, and the request sets are returned as immutable snapshots
+ * that are only rebuilt after a request is added or cleared.
  */
 public class Elevator {
     
@@ -27,20 +39,66 @@ public class Elevator {
         UP, DOWN, NONE
     }
     
+    /** Capacity of a car without a load limit (the default) */
+    public static final int UNLIMITED_CAPACITY = Integer.MAX_VALUE;
+    
+    /** Returned by nextRequestAbove/nextRequestBelow when there is no request in that direction */
+    public static final int NO_REQUEST = FloorIndex.NO_FLOOR;
+    
     private int floor;
     private Direction direction;
-    private Set<Integer> destinations;
-    private Set<Integer> calls;
+    private final FloorIndex destinations;
+    private final FloorIndex calls;
+    private final FloorIndex upCalls;
+    private final FloorIndex downCalls;
+    private final FloorIndex[] requests;
+    // The requests a full car still serves
+    private final FloorIndex[] destinationRequests;
     private final int lowestFloor;
     private final int highestFloor;
     
     private final ReentrantLock lock = new ReentrantLock();
-    private final Condition floorChanged = lock.newCondition();
-    private final Condition destinationAdded = lock.newCondition();
+    // One wait queue per floor, so a move only wakes the riders waiting for the floor reached
+    private final Condition[] floorReached;
+    private final Condition requestsChanged = lock.newCondition();
     private final Condition stopped = lock.newCondition();
     
     private volatile boolean isMoving = false;
     
+    // Riders aboard, reserved atomically when boarding so riders never overfill the car
+    private volatile int capacity = UNLIMITED_CAPACITY;
+    private final AtomicInteger load = new AtomicInteger();
+    
+    // Floor (relative to the lowest floor) and direction, packed for lock-free reads
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int DIRECTION_BITS = 2;
+    private volatile int position;
+    
+    // Incremented under the lock whenever a request is added or cleared
+    private volatile int requestVersion = 0;
+    private volatile RequestSnapshot snapshot;
+    
+    /**
+     * Immutable copy of the request sets at a given request version
+     */
+    private static final class RequestSnapshot {
+        final int version;
+        final Set<Integer> destinations;
+        final Set<Integer> calls;
+        final Set<Integer> upCalls;
+        final Set<Integer> downCalls;
+        
+        RequestSnapshot(int version, Set<Integer> destinations, Set<Integer> calls,
+                        Set<Integer> upCalls, Set<Integer> downCalls) {
+            this.version = version;
+            this.destinations = destinations;
+            this.calls = calls;
+            this.upCalls = upCalls;
+            this.downCalls = downCalls;
+        }
+    }
+    private volatile Runnable requestListener = null;
+    
     /**
      * Constructor for Elevator
      * @param lowestFloor the lowest floor the elevator can reach
@@ -51,96 +109,264 @@ public class Elevator {
         this.lowestFloor = lowestFloor;
         this.highestFloor = highestFloor;
         this.direction = Direction.NONE;
-        this.destinations = new TreeSet<>();
-        this.calls = new TreeSet<>();
+        this.destinations = new FloorIndex(lowestFloor, highestFloor);
+        this.calls = new FloorIndex(lowestFloor, highestFloor);
+        this.upCalls = new FloorIndex(lowestFloor, highestFloor);
+        this.downCalls = new FloorIndex(lowestFloor, highestFloor);
+        this.requests = new FloorIndex[] {calls, upCalls, downCalls, destinations};
+        this.destinationRequests = new FloorIndex[] {destinations};
+        this.floorReached = new Condition[highestFloor - lowestFloor + 1];
+        for (int i = 0; i < floorReached.length; i++) {
+            floorReached[i] = lock.newCondition();
+        }
+        publishPosition();
+        this.snapshot = takeSnapshot();
     }
     
     /**
-     * Add a call to the elevator from a specific floor
+     * Add a call without direction from a specific floor
      */
     public void addCall(int floor) {
+        addCall(floor, Direction.NONE);
+    }
+    
+    /**
+     * Add a hall call from a specific floor for users going in the given direction
+     * (NONE for a call served whatever the travel direction)
+     */
+    public void addCall(int floor, Direction direction) {
+        boolean added = false;
         lock.lock();
         try {
             if (floor >= lowestFloor && floor <= highestFloor) {
-                calls.add(floor);
-                destinationAdded.signalAll();
+                callsFor(direction).add(floor);
+                requestVersion++;
+                requestsChanged.signalAll();
+                added = true;
             }
         } finally {
             lock.unlock();
         }
+        if (added) {
+            notifyRequestListener();
+        }
     }
     
     /**
-     * Add a destination for a user in the elevator
+     * Add a destination for a user in the elevator.
+     * A destination on the current floor is ignored while the elevator is idle there.
      */
     public void addDestination(int floor) {
+        boolean added = false;
         lock.lock();
         try {
-            if (floor >= lowestFloor && floor <= highestFloor && floor != this.floor) {
+            if (floor >= lowestFloor && floor <= highestFloor
+                    && (floor != this.floor || direction != Direction.NONE)) {
                 destinations.add(floor);
-                destinationAdded.signalAll();
+                requestVersion++;
+                requestsChanged.signalAll();
+                added = true;
             }
         } finally {
             lock.unlock();
         }
+        if (added) {
+            notifyRequestListener();
+        }
+    }
+    
+    /**
+     * Add a burst of calls without direction
+     * @see #addCalls(int[], Direction[])
+     */
+    public void addCalls(int[] floors) {
+        addCalls(floors, null);
     }
     
     /**
-     * Check if there is a destination or call on the current floor
+     * Add a burst of hall calls under a single lock acquisition, with one wake-up
+     * for the whole burst. Invalid floors are ignored.
+     * @param floors the floors of the calls
+     * @param directions the direction of each call, or null for calls without direction
+     */
+    public void addCalls(int[] floors, Direction[] directions) {
+        if (directions != null && directions.length != floors.length) {
+            throw new IllegalArgumentException("One direction is needed per floor");
+        }
+        boolean added = false;
+        lock.lock();
+        try {
+            for (int i = 0; i < floors.length; i++) {
+                int floor = floors[i];
+                if (floor >= lowestFloor && floor <= highestFloor) {
+                    callsFor(directions == null ? Direction.NONE : directions[i]).add(floor);
+                    added = true;
+                }
+            }
+            if (added) {
+                requestVersion++;
+                requestsChanged.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (added) {
+            notifyRequestListener();
+        }
+    }
+    
+    /**
+     * Add a burst of destinations under a single lock acquisition, with one wake-up
+     * for the whole burst. Follows the same rules as addDestination.
+     */
+    public void addDestinations(int[] floors) {
+        boolean added = false;
+        lock.lock();
+        try {
+            for (int floor : floors) {
+                if (floor >= lowestFloor && floor <= highestFloor
+                        && (floor != this.floor || direction != Direction.NONE)) {
+                    destinations.add(floor);
+                    added = true;
+                }
+            }
+            if (added) {
+                requestVersion++;
+                requestsChanged.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (added) {
+            notifyRequestListener();
+        }
+    }
+    
+    /**
+     * Set the action run after every new call or destination, outside the elevator lock.
+     * Used by the controller to wake up a parked car.
+     */
+    public void setRequestListener(Runnable requestListener) {
+        this.requestListener = requestListener;
+    }
+    
+    private void notifyRequestListener() {
+        Runnable listener = requestListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Check if there is a destination or call (in any direction) on the current floor
      */
     public boolean hasCallOrDestinationAtCurrentFloor() {
         lock.lock();
         try {
-            return calls.contains(floor) || destinations.contains(floor);
+            return hasRequestAt(floor);
         } finally {
             lock.unlock();
         }
     }
     
     /**
-     * Clear calls and destinations for the current floor
+     * Check if the elevator must stop at the current floor given its travel direction:
+     * for a destination, a call without direction, a hall call in the travel direction,
+     * or an opposite hall call when there is nothing further ahead
+     */
+    public boolean shouldStopAtCurrentFloor() {
+        lock.lock();
+        try {
+            return shouldStopAt(floor);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Choose the direction announced while stopped at the current floor, and make it
+     * the current direction. Only users going that way board; the opposite hall call
+     * stays pending.
+     */
+    public Direction chooseServiceDirection() {
+        lock.lock();
+        try {
+            boolean up = upCalls.contains(floor);
+            boolean down = downCalls.contains(floor);
+            if (direction == Direction.UP) {
+                if (!up && down && !hasRequestAbove(floor)) {
+                    direction = Direction.DOWN;
+                }
+            } else if (direction == Direction.DOWN) {
+                if (!down && up && !hasRequestBelow(floor)) {
+                    direction = Direction.UP;
+                }
+            } else if (up && (hasRequestAbove(floor) || !down)) {
+                direction = Direction.UP;
+            } else if (down) {
+                direction = Direction.DOWN;
+            }
+            publishPosition();
+            return direction;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Clear the destinations, the calls without direction and the hall calls
+     * in the current direction for the current floor (both hall calls when idle)
      */
     public void clearCallsAndDestinationsAtCurrentFloor() {
         lock.lock();
         try {
-            calls.remove(floor);
-            destinations.remove(floor);
+            boolean removed = calls.remove(floor);
+            removed |= destinations.remove(floor);
+            if (direction != Direction.DOWN) {
+                removed |= upCalls.remove(floor);
+            }
+            if (direction != Direction.UP) {
+                removed |= downCalls.remove(floor);
+            }
+            if (removed) {
+                requestVersion++;
+                requestsChanged.signalAll();
+            }
         } finally {
             lock.unlock();
         }
     }
     
     /**
-     * Choose the next direction based on the specification logic
+     * Choose the next direction based on the specification logic; a full car only
+     * heads for its destinations
      */
     public Direction chooseDirection() {
         lock.lock();
         try {
-            // If there is a call on the current floor, indicate no current direction
-            if (calls.contains(floor)) {
+            // If the elevator must stop on the current floor, indicate no current direction
+            if (shouldStopAt(floor)) {
                 direction = Direction.NONE;
+                publishPosition();
                 return direction;
             }
             
-            // Look for calls or destinations in the current direction
-            boolean hasInCurrentDirection = hasCallOrDestinationInDirection(direction);
-            
-            // If there is a call or destination in the current direction and not at boundary
-            if (hasInCurrentDirection && !isAtBoundaryInDirection(direction)) {
-                return direction;
-            }
-            
-            // Search for call or destination in the opposite direction
-            Direction opposite = getOppositeDirection(direction);
-            boolean hasInOppositeDirection = hasCallOrDestinationInDirection(opposite);
+            boolean hasAbove = hasRequestAbove(floor);
+            boolean hasBelow = hasRequestBelow(floor);
             
-            if (hasInOppositeDirection && !isAtBoundaryInDirection(opposite)) {
-                direction = opposite;
-                return direction;
+            // Keep the current direction while there are requests ahead, otherwise reverse.
+            // An idle elevator heads up first, then down.
+            if (direction != Direction.DOWN && hasAbove) {
+                direction = Direction.UP;
+            } else if (hasBelow) {
+                direction = Direction.DOWN;
+            } else if (hasAbove) {
+                direction = Direction.UP;
+            } else {
+                // If there is no call or destination in any direction, change to NONE
+                direction = Direction.NONE;
             }
-            
-            // If there is no call or destination in any direction, change to NONE
-            direction = Direction.NONE;
+            publishPosition();
             return direction;
         } finally {
             lock.unlock();
@@ -148,63 +374,134 @@ public class Elevator {
     }
     
     /**
-     * Check if there is a call or destination in the specified direction
+     * Get the nearest floor strictly above the given floor with a call or destination
+     * @return the floor, or NO_REQUEST if there is none
      */
-    private boolean hasCallOrDestinationInDirection(Direction dir) {
-        if (dir == Direction.NONE) {
-            // Look upwards first
-            for (int f = floor; f <= highestFloor; f++) {
-                if (calls.contains(f) || destinations.contains(f)) {
-                    return true;
+    public int nextRequestAbove(int floor) {
+        lock.lock();
+        try {
+            return FloorIndex.nextAtOrAbove(requests, floor + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get the nearest floor strictly below the given floor with a call or destination
+     * @return the floor, or NO_REQUEST if there is none
+     */
+    public int nextRequestBelow(int floor) {
+        lock.lock();
+        try {
+            return FloorIndex.nextAtOrBelow(requests, floor - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get the first floor from the given floor (included) onwards in the current
+     * direction where the elevator must stop (see shouldStopAtCurrentFloor);
+     * a full car only looks at its destinations
+     * @return the floor, or NO_REQUEST if there is none or the elevator has no direction
+     */
+    public int nextStopFrom(int fromFloor) {
+        lock.lock();
+        try {
+            FloorIndex[] requests = activeRequests();
+            if (direction == Direction.UP) {
+                for (int f = FloorIndex.nextAtOrAbove(requests, fromFloor);
+                     f != NO_REQUEST; f = FloorIndex.nextAtOrAbove(requests, f + 1)) {
+                    if (shouldStopAt(f)) {
+                        return f;
+                    }
                 }
-            }
-            // Then look downwards
-            for (int f = floor; f >= lowestFloor; f--) {
-                if (calls.contains(f) || destinations.contains(f)) {
-                    return true;
+            } else if (direction == Direction.DOWN) {
+                for (int f = FloorIndex.nextAtOrBelow(requests, fromFloor);
+                     f != NO_REQUEST; f = FloorIndex.nextAtOrBelow(requests, f - 1)) {
+                    if (shouldStopAt(f)) {
+                        return f;
+                    }
                 }
             }
+            return NO_REQUEST;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean hasRequestAt(int floor) {
+        return calls.contains(floor) || upCalls.contains(floor) || downCalls.contains(floor)
+            || destinations.contains(floor);
+    }
+    
+    // Requests the car travels for: a full car passes the hall calls by, so only its destinations count
+    private FloorIndex[] activeRequests() {
+        return isFull() ? destinationRequests : requests;
+    }
+    
+    private boolean hasRequestAbove(int floor) {
+        return FloorIndex.nextAtOrAbove(activeRequests(), floor + 1) != NO_REQUEST;
+    }
+    
+    private boolean hasRequestBelow(int floor) {
+        return FloorIndex.nextAtOrBelow(activeRequests(), floor - 1) != NO_REQUEST;
+    }
+    
+    private boolean shouldStopAt(int floor) {
+        if (destinations.contains(floor)) {
+            return true;
+        }
+        if (isFull()) {
+            // Nobody could board: pass the hall calls by
             return false;
         }
-        
-        if (dir == Direction.UP) {
-            for (int f = floor; f <= highestFloor; f++) {
-                if (calls.contains(f) || destinations.contains(f)) {
-                    return true;
-                }
-            }
-        } else if (dir == Direction.DOWN) {
-            for (int f = floor; f >= lowestFloor; f--) {
-                if (calls.contains(f) || destinations.contains(f)) {
-                    return true;
-                }
-            }
+        if (calls.contains(floor)) {
+            return true;
+        }
+        boolean up = upCalls.contains(floor);
+        boolean down = downCalls.contains(floor);
+        if (direction == Direction.UP) {
+            return up || (down && !hasRequestAbove(floor));
+        } else if (direction == Direction.DOWN) {
+            return down || (up && !hasRequestBelow(floor));
+        }
+        return up || down;
+    }
+    
+    private FloorIndex callsFor(Direction direction) {
+        if (direction == Direction.UP) {
+            return upCalls;
+        } else if (direction == Direction.DOWN) {
+            return downCalls;
         }
-        return false;
+        return calls;
     }
     
     /**
-     * Check if elevator is at a boundary (highest or lowest floor) in the given direction
+     * Get the number of pending calls and destinations
      */
-    private boolean isAtBoundaryInDirection(Direction dir) {
-        if (dir == Direction.UP) {
-            return floor >= highestFloor;
-        } else if (dir == Direction.DOWN) {
-            return floor <= lowestFloor;
+    public int getRequestCount() {
+        lock.lock();
+        try {
+            return calls.size() + upCalls.size() + downCalls.size() + destinations.size();
+        } finally {
+            lock.unlock();
         }
-        return false;
     }
     
     /**
-     * Get the opposite direction
+     * Get the number of requests the car can serve now: only its destinations
+     * while it is full, every call and destination otherwise
      */
-    private Direction getOppositeDirection(Direction dir) {
-        if (dir == Direction.UP) {
-            return Direction.DOWN;
-        } else if (dir == Direction.DOWN) {
-            return Direction.UP;
+    public int getActiveRequestCount() {
+        lock.lock();
+        try {
+            return isFull() ? destinations.size() : calls.size() + upCalls.size() + downCalls.size()
+                                                    + destinations.size();
+        } finally {
+            lock.unlock();
         }
-        return Direction.UP; // Default to UP when NONE
     }
     
     /**
@@ -215,10 +512,10 @@ public class Elevator {
         try {
             if (direction == Direction.UP && floor < highestFloor) {
                 floor++;
-                floorChanged.signalAll();
+                floorReached[floor - lowestFloor].signalAll();
             } else if (direction == Direction.DOWN && floor > lowestFloor) {
                 floor--;
-                floorChanged.signalAll();
+                floorReached[floor - lowestFloor].signalAll();
             } else if (direction == Direction.UP && floor >= highestFloor) {
                 // Reverse direction at the top
                 direction = Direction.DOWN;
@@ -226,6 +523,7 @@ public class Elevator {
                 // Reverse direction at the bottom
                 direction = Direction.UP;
             }
+            publishPosition();
         } finally {
             lock.unlock();
         }
@@ -239,6 +537,7 @@ public class Elevator {
         try {
             isMoving = false;
             direction = Direction.NONE;
+            publishPosition();
             stopped.signalAll();
         } finally {
             lock.unlock();
@@ -246,13 +545,19 @@ public class Elevator {
     }
     
     /**
-     * Wait until the elevator reaches a specific floor
+     * Wait until the elevator reaches a specific floor.
+     * Only the moves to that floor wake the caller up.
+     * @throws IllegalArgumentException if the floor is not served by the elevator
      */
     public void waitForFloor(int targetFloor) throws InterruptedException {
+        if (targetFloor < lowestFloor || targetFloor > highestFloor) {
+            throw new IllegalArgumentException("Floor " + targetFloor + " is not served");
+        }
+        Condition reached = floorReached[targetFloor - lowestFloor];
         lock.lock();
         try {
             while (floor != targetFloor) {
-                floorChanged.await();
+                reached.await();
             }
         } finally {
             lock.unlock();
@@ -265,64 +570,204 @@ public class Elevator {
     public void waitUntilEmpty() throws InterruptedException {
         lock.lock();
         try {
-            while (!calls.isEmpty() || !destinations.isEmpty()) {
-                destinationAdded.await();
+            while (hasRequests()) {
+                requestsChanged.await();
             }
         } finally {
             lock.unlock();
         }
     }
     
-    // Getters
-    public int getFloor() {
+    /**
+     * Wait until the elevator has no pending calls or destinations, at most for the given time
+     * @return true if the elevator has no request, false if the time elapsed first
+     */
+    public boolean waitUntilEmpty(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
         lock.lock();
         try {
-            return floor;
+            while (hasRequests()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = requestsChanged.awaitNanos(nanos);
+            }
+            return true;
         } finally {
             lock.unlock();
         }
     }
     
+    private boolean hasRequests() {
+        return !calls.isEmpty() || !upCalls.isEmpty() || !downCalls.isEmpty() || !destinations.isEmpty();
+    }
+    
+    // Getters
+    public int getFloor() {
+        return lowestFloor + (position >>> DIRECTION_BITS);
+    }
+    
     public Direction getDirection() {
-        lock.lock();
-        try {
-            return direction;
-        } finally {
-            lock.unlock();
-        }
+        return DIRECTIONS[position & ((1 << DIRECTION_BITS) - 1)];
     }
     
     public void setDirection(Direction direction) {
         lock.lock();
         try {
             this.direction = direction;
+            publishPosition();
         } finally {
             lock.unlock();
         }
     }
     
+    /**
+     * Get the floors entered as destinations (immutable snapshot)
+     */
     public Set<Integer> getDestinations() {
-        lock.lock();
-        try {
-            return new TreeSet<>(destinations);
-        } finally {
-            lock.unlock();
-        }
+        return currentSnapshot().destinations;
     }
     
+    /**
+     * Get the floors with a pending call, whatever its direction (immutable snapshot)
+     */
     public Set<Integer> getCalls() {
+        return currentSnapshot().calls;
+    }
+    
+    /**
+     * Get the floors with a pending hall call going up (immutable snapshot)
+     */
+    public Set<Integer> getUpCalls() {
+        return currentSnapshot().upCalls;
+    }
+    
+    /**
+     * Get the floors with a pending hall call going down (immutable snapshot)
+     */
+    public Set<Integer> getDownCalls() {
+        return currentSnapshot().downCalls;
+    }
+    
+    /**
+     * Get the request version, incremented whenever a call or destination is added
+     * or cleared. Pollers can skip their work while it does not change.
+     */
+    public int getRequestVersion() {
+        return requestVersion;
+    }
+    
+    /**
+     * Get the snapshot of the request sets, rebuilding it only if a request changed
+     */
+    private RequestSnapshot currentSnapshot() {
+        RequestSnapshot current = snapshot;
+        if (current.version == requestVersion) {
+            return current;
+        }
         lock.lock();
         try {
-            return new TreeSet<>(calls);
+            current = snapshot;
+            if (current.version != requestVersion) {
+                current = takeSnapshot();
+                snapshot = current;
+            }
+            return current;
         } finally {
             lock.unlock();
         }
     }
     
+    /**
+     * Copy the request sets (with the lock held, or from the constructor)
+     */
+    private RequestSnapshot takeSnapshot() {
+        Set<Integer> allCalls = new TreeSet<>();
+        calls.addTo(allCalls);
+        upCalls.addTo(allCalls);
+        downCalls.addTo(allCalls);
+        return new RequestSnapshot(requestVersion,
+                                   Collections.unmodifiableSet(destinations.toSet()),
+                                   Collections.unmodifiableSet(allCalls),
+                                   Collections.unmodifiableSet(upCalls.toSet()),
+                                   Collections.unmodifiableSet(downCalls.toSet()));
+    }
+    
+    /**
+     * Publish the floor and direction for lock-free reads (with the lock held)
+     */
+    private void publishPosition() {
+        position = (floor - lowestFloor) << DIRECTION_BITS | direction.ordinal();
+    }
+    
     public boolean isMoving() {
         return isMoving;
     }
     
+    /**
+     * Get the number of riders the car can hold
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * Set the number of riders the car can hold (UNLIMITED_CAPACITY by default)
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A car holds at least one rider: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Get the number of riders in the car
+     */
+    public int getLoad() {
+        return load.get();
+    }
+    
+    /**
+     * Check if the car cannot take another rider
+     */
+    public boolean isFull() {
+        return load.get() >= capacity;
+    }
+    
+    /**
+     * Reserve room for a batch of riders boarding at once
+     * @return the number of riders admitted, from 0 when the car is full up to riders
+     */
+    public int board(int riders) {
+        while (true) {
+            int current = load.get();
+            int admitted = Math.max(0, Math.min(riders, capacity - current));
+            if (admitted == 0 || load.compareAndSet(current, current + admitted)) {
+                return admitted;
+            }
+        }
+    }
+    
+    /**
+     * Reserve room for one rider
+     * @return true if the rider was admitted, false if the car is full
+     */
+    public boolean tryBoard() {
+        return board(1) == 1;
+    }
+    
+    /**
+     * Release the room of riders leaving the car (or giving up their place);
+     * a car parked while full is woken up to serve its pending calls
+     */
+    public void alight(int riders) {
+        if (load.getAndAdd(-riders) >= capacity && riders > 0) {
+            // Room again: a car parked while full can serve its pending calls
+            notifyRequestListener();
+        }
+    }
+    
     public void setMoving(boolean moving) {
         isMoving = moving;
     }
@@ -0,0 +1,44 @@
+package com.elevatorcontroller;
+
+/**
+ * Sink for the messages printed by the system, in the trace format
+ * "&lt;type&gt; &lt;actor&gt;: &lt;type&gt; &lt;action&gt;&lt;detail&gt;", where type is:
+ * - # for user events
+ * - * for door events
+ * - + for elevator events
+ * 
+ * Callers pass the parts separately so implementations can defer the
+ * formatting, or skip it entirely.
+ */
+public interface EventLog {
+    
+    /**
+     * Log an event
+     * @param eventType '#' for user, '*' for door, '+' for elevator
+     * @param actor the actor name, e.g. "Porte[1]"
+     * @param action the action text
+     * @param detail appended to the action when not null (a floor, a direction...)
+     */
+    void log(char eventType, String actor, String action, Object detail);
+    
+    /**
+     * Log an event without detail
+     */
+    default void log(char eventType, String actor, String action) {
+        log(eventType, actor, action, null);
+    }
+    
+    /**
+     * Get the shared asynchronous console log (the default)
+     */
+    static EventLog console() {
+        return AsyncEventLog.Console.INSTANCE;
+    }
+    
+    /**
+     * Get a log discarding every event, for benchmarks
+     */
+    static EventLog silent() {
+        return (eventType, actor, action, detail) -> { };
+    }
+}
@@ -0,0 +1,207 @@
+package com.elevatorcontroller;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Discrete-event scheduler driving the elevator controller.
+ * 
+ * Events are kept in a priority queue ordered by due time (ties broken by
+ * scheduling order) and executed one at a time. The pluggable Clock decides
+ * how time passes between two events:
+ * - RealTimeClock: a dispatcher thread really waits until each event is due
+ * - VirtualClock: the caller runs the queue and time jumps from event to event
+ * 
+ * An event failing on the dispatcher thread is reported and counted, and the
+ * following events still run; on the caller of runUntil the failure propagates.
+ */
+public class EventScheduler {
+    
+    /**
+     * Inner class representing a single scheduled event
+     */
+    private static final class ScheduledEvent implements Comparable<ScheduledEvent> {
+        final long time;
+        final long sequence;
+        final Runnable action;
+        
+        ScheduledEvent(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+        
+        @Override
+        public int compareTo(ScheduledEvent other) {
+            if (time != other.time) {
+                return Long.compare(time, other.time);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+    
+    private final Clock clock;
+    private final PriorityQueue<ScheduledEvent> queue = new PriorityQueue<>();
+    private long sequence = 0;
+    private volatile boolean running = true;
+    private final AtomicLong failedEvents = new AtomicLong();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition eventAdded = lock.newCondition();
+    
+    /**
+     * Constructor for EventScheduler
+     * @param clock the clock deciding how time passes between events
+     */
+    public EventScheduler(Clock clock) {
+        this.clock = clock;
+    }
+    
+    /**
+     * Schedule an action to run after the given delay
+     */
+    public void schedule(long delayMillis, Runnable action) {
+        lock.lock();
+        try {
+            queue.add(new ScheduledEvent(clock.now() + Math.max(0, delayMillis), sequence++, action));
+            eventAdded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Run events for the given duration, starting from the current time
+     */
+    public void runFor(long durationMillis) throws InterruptedException {
+        runUntil(clock.now() + durationMillis);
+    }
+    
+    /**
+     * Run every event due up to the given time, in time order.
+     * With a virtual clock the time is advanced to endTime when the queue is exhausted.
+     */
+    public void runUntil(long endTime) throws InterruptedException {
+        runUntil(endTime, () -> false);
+    }
+    
+    /**
+     * Run every event due up to the given time, in time order, until the given
+     * condition holds (checked before each event)
+     * @return true if the condition holds, false if the time or the scheduler stopped first
+     */
+    public boolean runUntil(long endTime, BooleanSupplier condition) throws InterruptedException {
+        lock.lock();
+        try {
+            while (running) {
+                if (condition.getAsBoolean()) {
+                    return true;
+                }
+                ScheduledEvent next = queue.peek();
+                long target = next == null ? endTime : Math.min(next.time, endTime);
+                if (clock.now() < target) {
+                    clock.awaitUntil(target, eventAdded);
+                    continue;
+                }
+                if (next == null || next.time > endTime) {
+                    return condition.getAsBoolean();
+                }
+                queue.poll();
+                
+                // Run the action without holding the lock so it can schedule new events
+                lock.unlock();
+                try {
+                    next.action.run();
+                } finally {
+                    lock.lock();
+                }
+            }
+            return condition.getAsBoolean();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Start a daemon thread running events as they become due, until stop() is
+     * called or the thread is interrupted. An event throwing an exception is
+     * reported to the thread's uncaught exception handler and skipped.
+     */
+    public Thread startDispatcher(String name) {
+        Thread dispatcher = new Thread(() -> {
+            Thread self = Thread.currentThread();
+            while (running) {
+                try {
+                    runUntil(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    self.interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    // One broken event must not freeze the whole building
+                    failedEvents.incrementAndGet();
+                    self.getUncaughtExceptionHandler().uncaughtException(self, e);
+                }
+            }
+        }, name);
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        return dispatcher;
+    }
+    
+    /**
+     * Stop running events: the dispatcher thread (or the caller of runUntil)
+     * returns once the event running, if any, is over
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            running = false;
+            eventAdded.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Get the number of events that failed on the dispatcher thread
+     */
+    public long getFailedEventCount() {
+        return failedEvents.get();
+    }
+    
+    /**
+     * Check if the scheduler still runs events
+     */
+    public boolean isRunning() {
+        return running;
+    }
+    
+    /**
+     * Get the current time of the scheduler clock
+     */
+    public long now() {
+        return clock.now();
+    }
+    
+    /**
+     * Get the scheduler clock
+     */
+    public Clock getClock() {
+        return clock;
+    }
+    
+    /**
+     * Get the number of events waiting to run
+     */
+    public int getPendingEventCount() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
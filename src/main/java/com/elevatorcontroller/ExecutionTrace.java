@@ -1,9 +1,20 @@
 package com.elevatorcontroller;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * ExecutionTrace class for capturing and managing execution trace of the system.
@@ -11,12 +22,54 @@ import java.util.concurrent.locks.ReentrantLock;
  * - # for user events
  * - * for door events
  * - + for elevator events
+ * 
+ * Recording is lock-free: each event claims a sequence number with one atomic
+ * increment and is stored in a chunked array whose chunks double in size, so
+ * chunks are never copied. Readers take a snapshot, a read-only view of the
+ * events recorded so far that does not copy the history.
+ * 
+ * In COLUMNAR mode the chunks hold primitive columns (timestamp, type, actor
+ * and action numbers in dictionaries) and TraceEvent objects are only built
+ * when events are read.
+ * 
+ * Queries do not scan the history either: recording also appends the event
+ * number to a posting list for its type and one for its actor, and time ranges
+ * are found by binary search on the timestamps. Query results are read-only
+ * views built lazily from the snapshot.
+ * 
+ * The indexes assume a single producer (in this system, the AsyncEventLog
+ * writer): events are then indexed in recording order and their timestamps do
+ * not decrease. Concurrent producers can index events out of order, or record
+ * an earlier timestamp after a later one; each append checks its neighbours,
+ * and a query on an index found out of order sorts or scans instead. Results
+ * are exact once the producers are quiescent.
+ * 
+ * For long runs, events can be kept off the heap in a binary trace file
+ * (see TraceFileWriter, TraceFileReader and AsyncEventLog).
  */
 public class ExecutionTrace {
     
-    private final List<TraceEvent> events = Collections.synchronizedList(new ArrayList<>());
-    private final ReentrantLock lock = new ReentrantLock();
-    private int eventCounter = 0;
+    // The first chunk holds 2^FIRST_CHUNK_BITS events, every following chunk twice as many
+    private static final int FIRST_CHUNK_BITS = 10;
+    private static final int CHUNK_COUNT = 31 - FIRST_CHUNK_BITS;
+    private static final long MAX_EVENTS = Integer.MAX_VALUE - (1L << FIRST_CHUNK_BITS);
+    
+    // Posting lists start small: there is one per actor
+    private static final int POSTING_FIRST_CHUNK_BITS = 4;
+    private static final int POSTING_CHUNK_COUNT = 31 - POSTING_FIRST_CHUNK_BITS;
+    
+    /**
+     * How events are kept in memory
+     */
+    public enum StorageMode {
+        /** One TraceEvent object per event: fastest to read */
+        OBJECTS,
+        /** Primitive columns with dictionary-encoded actors and actions: several times smaller */
+        COLUMNAR
+    }
+    
+    private final Clock clock;
+    private final AtomicReference<Storage> storage;
     
     /**
      * Inner class representing a single trace event
@@ -45,18 +98,436 @@ public class ExecutionTrace {
         }
     }
     
+    /**
+     * Read-only view of the events recorded when the snapshot was taken.
+     * Events recorded afterwards are not visible; nothing is copied.
+     */
+    public static final class Snapshot extends AbstractList<TraceEvent> implements RandomAccess {
+        private final Storage storage;
+        private final int size;
+        
+        private Snapshot(Storage storage, int size) {
+            this.storage = storage;
+            this.size = size;
+        }
+        
+        @Override
+        public TraceEvent get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return storage.get(index);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        long timestamp(int index) {
+            return storage.timestamp(index);
+        }
+    }
+    
+    /**
+     * Read-only view of the events listed in a posting list when the view was taken,
+     * in recording order. A list appended out of order by concurrent producers is
+     * copied and sorted when the view is taken.
+     */
+    private static final class PostingView extends AbstractList<TraceEvent> implements RandomAccess {
+        private final Storage storage;
+        private final PostingList postings;
+        private final int size;
+        private final int[] sorted;
+        
+        private PostingView(Storage storage, PostingList postings) {
+            this.storage = storage;
+            this.postings = postings;
+            this.size = postings == null ? 0 : postings.size();
+            this.sorted = postings == null || postings.ordered ? null : postings.sortedCopy(size);
+        }
+        
+        @Override
+        public TraceEvent get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return storage.get(sorted != null ? sorted[index] : postings.get(index));
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+    
+    /**
+     * Append-only chunked list of event numbers with lock-free multi-producer appends.
+     * Event numbers are stored plus one, so that 0 marks a claimed slot not yet written.
+     * The list is in slot-claim order: with a single producer (the AsyncEventLog writer)
+     * that is the recording order, and ordered stays true.
+     */
+    private static final class PostingList {
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicReferenceArray<AtomicIntegerArray> chunks = new AtomicReferenceArray<>(POSTING_CHUNK_COUNT);
+        // Cleared once two neighbouring entries are found out of order
+        volatile boolean ordered = true;
+        
+        void append(int eventNumber) {
+            int index = count.getAndIncrement();
+            int position = index + (1 << POSTING_FIRST_CHUNK_BITS);
+            int highestBit = 31 - Integer.numberOfLeadingZeros(position);
+            chunk(highestBit - POSTING_FIRST_CHUNK_BITS).set(position - (1 << highestBit), eventNumber + 1);
+            
+            // Of two neighbours, the one written last sees the other
+            int previous = index > 0 ? entry(index - 1) : 0;
+            int next = index + 1 < count.get() ? entry(index + 1) : 0;
+            if (previous > eventNumber + 1 || (next != 0 && next < eventNumber + 1)) {
+                ordered = false;
+            }
+        }
+        
+        int get(int index) {
+            int entry = entry(index);
+            while (entry == 0) {
+                // The slot is claimed, its producer is between the claim and the store
+                Thread.onSpinWait();
+                entry = entry(index);
+            }
+            return entry - 1;
+        }
+        
+        /**
+         * Copy the first size event numbers in recording order
+         */
+        int[] sortedCopy(int size) {
+            int[] eventNumbers = new int[size];
+            for (int i = 0; i < size; i++) {
+                eventNumbers[i] = get(i);
+            }
+            Arrays.sort(eventNumbers);
+            return eventNumbers;
+        }
+        
+        /**
+         * Get a stored entry, or 0 if its slot is not written yet
+         */
+        private int entry(int index) {
+            int position = index + (1 << POSTING_FIRST_CHUNK_BITS);
+            int highestBit = 31 - Integer.numberOfLeadingZeros(position);
+            return chunk(highestBit - POSTING_FIRST_CHUNK_BITS).get(position - (1 << highestBit));
+        }
+        
+        private AtomicIntegerArray chunk(int chunkIndex) {
+            AtomicIntegerArray chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunks.compareAndSet(chunkIndex, null,
+                    new AtomicIntegerArray(1 << (chunkIndex + POSTING_FIRST_CHUNK_BITS)));
+                chunk = chunks.get(chunkIndex);
+            }
+            return chunk;
+        }
+        
+        int size() {
+            return count.get();
+        }
+    }
+    
+    /**
+     * Append-only event storage with lock-free multi-producer appends, and its indexes
+     */
+    private abstract static class Storage {
+        final AtomicLong sequence = new AtomicLong();
+        final ConcurrentMap<Character, PostingList> byType = new ConcurrentHashMap<>();
+        final ConcurrentMap<String, PostingList> byActor = new ConcurrentHashMap<>();
+        // Cleared once two neighbouring events are found with decreasing timestamps
+        volatile boolean timeOrdered = true;
+        
+        /**
+         * Claim the next sequence number, store the event and index it
+         */
+        void append(long timestamp, char eventType, String actor, String action) {
+            long sequenceNumber = sequence.getAndIncrement();
+            if (sequenceNumber >= MAX_EVENTS) {
+                throw new IllegalStateException("Execution trace is full");
+            }
+            int index = (int) sequenceNumber;
+            store(index, timestamp, eventType, actor, action);
+            
+            // Of two neighbours, the one stored last sees the other
+            if ((index > 0 && isStored(index - 1) && timestamp(index - 1) > timestamp)
+                || (index + 1 < sequence.get() && isStored(index + 1) && timestamp(index + 1) < timestamp)) {
+                timeOrdered = false;
+            }
+            
+            // Index the event once it is stored, so every posting resolves to an event
+            byType.computeIfAbsent(eventType, type -> new PostingList()).append(index);
+            byActor.computeIfAbsent(actor, name -> new PostingList()).append(index);
+        }
+        
+        /**
+         * Store an event at its claimed sequence number
+         */
+        abstract void store(int sequenceNumber, long timestamp, char eventType, String actor, String action);
+        
+        /**
+         * Check whether a claimed event is stored yet, without waiting
+         */
+        abstract boolean isStored(int index);
+        
+        /**
+         * Get a claimed event, waiting for its producer to finish storing it
+         */
+        abstract TraceEvent get(int index);
+        
+        /**
+         * Get the timestamp of a claimed event without materializing it
+         */
+        long timestamp(int index) {
+            return get(index).timestamp;
+        }
+        
+        /**
+         * Create an empty storage of the same kind
+         */
+        abstract Storage emptyCopy();
+        
+        int size() {
+            return (int) Math.min(sequence.get(), MAX_EVENTS);
+        }
+    }
+    
+    /**
+     * Storage keeping one TraceEvent object per event, in a chunked array
+     */
+    private static final class ObjectStorage extends Storage {
+        final AtomicReferenceArray<AtomicReferenceArray<TraceEvent>> chunks =
+            new AtomicReferenceArray<>(CHUNK_COUNT);
+        
+        @Override
+        void store(int sequenceNumber, long timestamp, char eventType, String actor, String action) {
+            TraceEvent event = new TraceEvent(sequenceNumber, timestamp, eventType, actor, action, action);
+            long position = sequenceNumber + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            chunk(highestBit - FIRST_CHUNK_BITS).set((int) (position - (1L << highestBit)), event);
+        }
+        
+        @Override
+        TraceEvent get(int index) {
+            long position = index + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            AtomicReferenceArray<TraceEvent> chunk = chunk(highestBit - FIRST_CHUNK_BITS);
+            int offset = (int) (position - (1L << highestBit));
+            TraceEvent event = chunk.get(offset);
+            while (event == null) {
+                // The slot is claimed, its producer is between the claim and the store
+                Thread.onSpinWait();
+                event = chunk.get(offset);
+            }
+            return event;
+        }
+        
+        @Override
+        boolean isStored(int index) {
+            long position = index + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            return chunk(highestBit - FIRST_CHUNK_BITS).get((int) (position - (1L << highestBit))) != null;
+        }
+        
+        @Override
+        Storage emptyCopy() {
+            return new ObjectStorage();
+        }
+        
+        /**
+         * Get a chunk, allocating it on first use
+         */
+        private AtomicReferenceArray<TraceEvent> chunk(int chunkIndex) {
+            AtomicReferenceArray<TraceEvent> chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunks.compareAndSet(chunkIndex, null,
+                    new AtomicReferenceArray<>(1 << (chunkIndex + FIRST_CHUNK_BITS)));
+                chunk = chunks.get(chunkIndex);
+            }
+            return chunk;
+        }
+    }
+    
+    /**
+     * Storage keeping events as parallel primitive columns, with actors and actions
+     * replaced by their number in a dictionary. TraceEvent objects are only built
+     * when an event is read.
+     */
+    private static final class ColumnarStorage extends Storage {
+        final AtomicReferenceArray<ColumnChunk> chunks = new AtomicReferenceArray<>(CHUNK_COUNT);
+        final Dictionary actors = new Dictionary();
+        final Dictionary actions = new Dictionary();
+        
+        @Override
+        void store(int sequenceNumber, long timestamp, char eventType, String actor, String action) {
+            long position = sequenceNumber + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            ColumnChunk chunk = chunk(highestBit - FIRST_CHUNK_BITS);
+            int offset = (int) (position - (1L << highestBit));
+            chunk.timestamps[offset] = timestamp;
+            chunk.types[offset] = eventType;
+            chunk.actorIds[offset] = actors.intern(actor);
+            // Publishes the plain writes above: the event is complete once its action is set
+            chunk.actionIds.set(offset, actions.intern(action) + 1);
+        }
+        
+        @Override
+        TraceEvent get(int index) {
+            long position = index + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            ColumnChunk chunk = chunk(highestBit - FIRST_CHUNK_BITS);
+            int offset = (int) (position - (1L << highestBit));
+            int actionId = awaitStored(chunk, offset);
+            String action = actions.get(actionId - 1);
+            return new TraceEvent(index, chunk.timestamps[offset], chunk.types[offset],
+                                  actors.get(chunk.actorIds[offset]), action, action);
+        }
+        
+        @Override
+        long timestamp(int index) {
+            long position = index + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            ColumnChunk chunk = chunk(highestBit - FIRST_CHUNK_BITS);
+            int offset = (int) (position - (1L << highestBit));
+            awaitStored(chunk, offset);
+            return chunk.timestamps[offset];
+        }
+        
+        @Override
+        boolean isStored(int index) {
+            long position = index + (1L << FIRST_CHUNK_BITS);
+            int highestBit = 63 - Long.numberOfLeadingZeros(position);
+            ColumnChunk chunk = chunk(highestBit - FIRST_CHUNK_BITS);
+            return chunk.actionIds.get((int) (position - (1L << highestBit))) != 0;
+        }
+        
+        @Override
+        Storage emptyCopy() {
+            return new ColumnarStorage();
+        }
+        
+        private static int awaitStored(ColumnChunk chunk, int offset) {
+            int actionId = chunk.actionIds.get(offset);
+            while (actionId == 0) {
+                // The slot is claimed, its producer is between the claim and the store
+                Thread.onSpinWait();
+                actionId = chunk.actionIds.get(offset);
+            }
+            return actionId;
+        }
+        
+        private ColumnChunk chunk(int chunkIndex) {
+            ColumnChunk chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunks.compareAndSet(chunkIndex, null, new ColumnChunk(1 << (chunkIndex + FIRST_CHUNK_BITS)));
+                chunk = chunks.get(chunkIndex);
+            }
+            return chunk;
+        }
+    }
+    
+    /**
+     * One chunk of columns. Action numbers are stored plus one, so that 0 marks
+     * a claimed slot not yet written.
+     */
+    private static final class ColumnChunk {
+        final long[] timestamps;
+        final char[] types;
+        final int[] actorIds;
+        final AtomicIntegerArray actionIds;
+        
+        ColumnChunk(int length) {
+            timestamps = new long[length];
+            types = new char[length];
+            actorIds = new int[length];
+            actionIds = new AtomicIntegerArray(length);
+        }
+    }
+    
+    /**
+     * Dictionary giving each distinct string a number, in order of first use
+     */
+    private static final class Dictionary {
+        final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicReferenceArray<AtomicReferenceArray<String>> chunks =
+            new AtomicReferenceArray<>(POSTING_CHUNK_COUNT);
+        
+        int intern(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                // The string is stored before its number is published
+                id = ids.computeIfAbsent(value, key -> {
+                    int next = count.getAndIncrement();
+                    int position = next + (1 << POSTING_FIRST_CHUNK_BITS);
+                    int highestBit = 31 - Integer.numberOfLeadingZeros(position);
+                    chunk(highestBit - POSTING_FIRST_CHUNK_BITS).set(position - (1 << highestBit), key);
+                    return next;
+                });
+            }
+            return id;
+        }
+        
+        String get(int id) {
+            int position = id + (1 << POSTING_FIRST_CHUNK_BITS);
+            int highestBit = 31 - Integer.numberOfLeadingZeros(position);
+            return chunk(highestBit - POSTING_FIRST_CHUNK_BITS).get(position - (1 << highestBit));
+        }
+        
+        private AtomicReferenceArray<String> chunk(int chunkIndex) {
+            AtomicReferenceArray<String> chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunks.compareAndSet(chunkIndex, null,
+                    new AtomicReferenceArray<>(1 << (chunkIndex + POSTING_FIRST_CHUNK_BITS)));
+                chunk = chunks.get(chunkIndex);
+            }
+            return chunk;
+        }
+    }
+    
+    /**
+     * Constructor for ExecutionTrace using wall-clock timestamps
+     */
+    public ExecutionTrace() {
+        this(new RealTimeClock());
+    }
+    
+    /**
+     * Constructor for ExecutionTrace
+     * @param clock the clock giving event timestamps (real or virtual time)
+     */
+    public ExecutionTrace(Clock clock) {
+        this(clock, StorageMode.OBJECTS);
+    }
+    
+    /**
+     * Constructor for ExecutionTrace
+     * @param clock the clock giving event timestamps (real or virtual time)
+     * @param mode how events are kept in memory
+     */
+    public ExecutionTrace(Clock clock, StorageMode mode) {
+        this.clock = clock;
+        this.storage = new AtomicReference<>(mode == StorageMode.COLUMNAR ? new ColumnarStorage()
+                                                                         : new ObjectStorage());
+    }
+    
     /**
      * Record a user event
      */
     public void recordUserEvent(int userId, String action) {
-        recordEvent('#', String.format("Usager[%d]", userId), action);
+        recordEvent('#', "Usager[" + userId + "]", action);
     }
     
     /**
      * Record a door event
      */
     public void recordDoorEvent(int floor, String action) {
-        recordEvent('*', String.format("Porte[%d]", floor), action);
+        recordEvent('*', "Porte[" + floor + "]", action);
     }
     
     /**
@@ -70,32 +541,29 @@ public class ExecutionTrace {
      * Record a trace event
      */
     private void recordEvent(char eventType, String actor, String action) {
-        lock.lock();
-        try {
-            TraceEvent event = new TraceEvent(
-                eventCounter++,
-                System.currentTimeMillis(),
-                eventType,
-                actor,
-                action,
-                action
-            );
-            events.add(event);
-        } finally {
-            lock.unlock();
-        }
+        record(clock.now(), eventType, actor, action);
     }
     
     /**
-     * Get all recorded events
+     * Record a trace event that happened at the given time (used by AsyncEventLog)
+     */
+    public void record(long timestamp, char eventType, String actor, String action) {
+        storage.get().append(timestamp, eventType, actor, action);
+    }
+    
+    /**
+     * Take a snapshot of the events recorded so far, without copying them
+     */
+    public Snapshot snapshot() {
+        Storage current = storage.get();
+        return new Snapshot(current, current.size());
+    }
+    
+    /**
+     * Get all recorded events, as a read-only snapshot
      */
     public List<TraceEvent> getEvents() {
-        lock.lock();
-        try {
-            return new ArrayList<>(events);
-        } finally {
-            lock.unlock();
-        }
+        return snapshot();
     }
     
     /**
@@ -103,73 +571,103 @@ public class ExecutionTrace {
      */
     public String getFormattedTrace() {
         StringBuilder sb = new StringBuilder();
-        List<TraceEvent> eventList = getEvents();
-        for (TraceEvent event : eventList) {
+        for (TraceEvent event : snapshot()) {
             sb.append(event).append("\n");
         }
         return sb.toString();
     }
     
+    /**
+     * Append the events recorded so far to a binary trace file
+     * @param path the trace file, created if needed
+     */
+    public void exportTo(Path path) throws IOException {
+        try (TraceFileWriter file = new TraceFileWriter(path)) {
+            for (TraceEvent event : snapshot()) {
+                file.append(event);
+            }
+        }
+    }
+    
     /**
      * Print all events to console
      */
     public void printTrace() {
         System.out.println("=== Execution Trace ===");
-        List<TraceEvent> eventList = getEvents();
-        for (TraceEvent event : eventList) {
+        for (TraceEvent event : snapshot()) {
             System.out.println(event);
         }
         System.out.println("======================");
     }
     
     /**
-     * Clear all recorded events
+     * Clear all recorded events.
+     * Snapshots taken before keep seeing the old events.
      */
     public void clear() {
-        lock.lock();
-        try {
-            events.clear();
-            eventCounter = 0;
-        } finally {
-            lock.unlock();
-        }
+        storage.set(storage.get().emptyCopy());
     }
     
     /**
      * Get the number of recorded events
      */
     public int getEventCount() {
-        lock.lock();
-        try {
-            return events.size();
-        } finally {
-            lock.unlock();
-        }
+        return storage.get().size();
     }
     
     /**
-     * Get events of a specific type
+     * Get events of a specific type, as a read-only view in recording order
      */
     public List<TraceEvent> getEventsByType(char eventType) {
-        List<TraceEvent> result = new ArrayList<>();
-        for (TraceEvent event : getEvents()) {
-            if (event.eventType == eventType) {
-                result.add(event);
+        Storage current = storage.get();
+        return new PostingView(current, current.byType.get(eventType));
+    }
+    
+    /**
+     * Get events for a specific actor, as a read-only view in recording order
+     */
+    public List<TraceEvent> getEventsByActor(String actor) {
+        Storage current = storage.get();
+        return new PostingView(current, current.byActor.get(actor));
+    }
+    
+    /**
+     * Get events with a timestamp in [from, to), in recording order, as a read-only list.
+     * With timestamps that do not decrease in recording order, as with a single
+     * producer such as the AsyncEventLog writer, the range is found by binary search
+     * and returned as a view of the snapshot; otherwise the snapshot is scanned.
+     */
+    public List<TraceEvent> getEventsBetween(long from, long to) {
+        Snapshot events = snapshot();
+        if (!events.storage.timeOrdered) {
+            List<TraceEvent> between = new ArrayList<>();
+            for (int i = 0; i < events.size(); i++) {
+                long timestamp = events.timestamp(i);
+                if (timestamp >= from && timestamp < to) {
+                    between.add(events.get(i));
+                }
             }
+            return Collections.unmodifiableList(between);
         }
-        return result;
+        int start = firstAtOrAfter(events, from);
+        int end = Math.max(start, firstAtOrAfter(events, to));
+        return events.subList(start, end);
     }
     
     /**
-     * Get events for a specific actor
+     * Binary search for the first event with a timestamp at or after the given time
      */
-    public List<TraceEvent> getEventsByActor(String actor) {
-        List<TraceEvent> result = new ArrayList<>();
-        for (TraceEvent event : getEvents()) {
-            if (event.actor.equals(actor)) {
-                result.add(event);
+    private static int firstAtOrAfter(Snapshot events, long time) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (events.timestamp(middle) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
         }
-        return result;
+        return low;
     }
 }
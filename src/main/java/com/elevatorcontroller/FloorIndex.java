@@ -0,0 +1,163 @@
+package com.elevatorcontroller;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Primitive bitset of floors, one bit per floor offset by the lowest floor.
+ * Used by the Elevator to store calls and destinations without boxing, and to
+ * find the nearest requested floor in a direction one 64-floor word at a time.
+ * 
+ * Not thread-safe: the Elevator guards it with its own lock.
+ */
+final class FloorIndex {
+    
+    /** Returned by the search methods when no floor is set in the searched range */
+    static final int NO_FLOOR = Integer.MIN_VALUE;
+    
+    private final int lowestFloor;
+    private final int highestFloor;
+    private final long[] words;
+    private int size = 0;
+    
+    /**
+     * Constructor for FloorIndex
+     * @param lowestFloor the lowest floor that can be stored
+     * @param highestFloor the highest floor that can be stored
+     */
+    FloorIndex(int lowestFloor, int highestFloor) {
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.words = new long[((highestFloor - lowestFloor) >>> 6) + 1];
+    }
+    
+    /**
+     * Add a floor, returns true if it was not already set
+     */
+    boolean add(int floor) {
+        int index = floor - lowestFloor;
+        long mask = 1L << index;
+        long word = words[index >>> 6];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        words[index >>> 6] = word | mask;
+        size++;
+        return true;
+    }
+    
+    /**
+     * Remove a floor, returns true if it was set
+     */
+    boolean remove(int floor) {
+        if (floor < lowestFloor || floor > highestFloor) {
+            return false;
+        }
+        int index = floor - lowestFloor;
+        long mask = 1L << index;
+        long word = words[index >>> 6];
+        if ((word & mask) == 0) {
+            return false;
+        }
+        words[index >>> 6] = word & ~mask;
+        size--;
+        return true;
+    }
+    
+    /**
+     * Check if a floor is set
+     */
+    boolean contains(int floor) {
+        if (floor < lowestFloor || floor > highestFloor) {
+            return false;
+        }
+        int index = floor - lowestFloor;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+    
+    boolean isEmpty() {
+        return size == 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Find the lowest floor at or above the given floor set in any of the indexes
+     * @param indexes indexes covering the same floors
+     * @return the floor, or NO_FLOOR if there is none
+     */
+    static int nextAtOrAbove(FloorIndex[] indexes, int floor) {
+        FloorIndex first = indexes[0];
+        if (floor > first.highestFloor) {
+            return NO_FLOOR;
+        }
+        int index = Math.max(floor, first.lowestFloor) - first.lowestFloor;
+        int wordIndex = index >>> 6;
+        long word = union(indexes, wordIndex) & (-1L << index);
+        while (true) {
+            if (word != 0) {
+                return first.lowestFloor + (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == first.words.length) {
+                return NO_FLOOR;
+            }
+            word = union(indexes, wordIndex);
+        }
+    }
+    
+    /**
+     * Find the highest floor at or below the given floor set in any of the indexes
+     * @param indexes indexes covering the same floors
+     * @return the floor, or NO_FLOOR if there is none
+     */
+    static int nextAtOrBelow(FloorIndex[] indexes, int floor) {
+        FloorIndex first = indexes[0];
+        if (floor < first.lowestFloor) {
+            return NO_FLOOR;
+        }
+        int index = Math.min(floor, first.highestFloor) - first.lowestFloor;
+        int wordIndex = index >>> 6;
+        long word = union(indexes, wordIndex) & (-1L >>> (63 - (index & 63)));
+        while (true) {
+            if (word != 0) {
+                return first.lowestFloor + (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (--wordIndex < 0) {
+                return NO_FLOOR;
+            }
+            word = union(indexes, wordIndex);
+        }
+    }
+    
+    private static long union(FloorIndex[] indexes, int wordIndex) {
+        long word = 0;
+        for (FloorIndex index : indexes) {
+            word |= index.words[wordIndex];
+        }
+        return word;
+    }
+    
+    /**
+     * Add the set floors to the given set
+     */
+    void addTo(Set<Integer> result) {
+        for (int wordIndex = 0; wordIndex < words.length; wordIndex++) {
+            long word = words[wordIndex];
+            while (word != 0) {
+                result.add(lowestFloor + (wordIndex << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+    
+    /**
+     * Copy the set floors into a sorted set
+     */
+    Set<Integer> toSet() {
+        Set<Integer> result = new TreeSet<>();
+        addTo(result);
+        return result;
+    }
+}
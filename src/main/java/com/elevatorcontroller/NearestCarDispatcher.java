@@ -0,0 +1,71 @@
+package com.elevatorcontroller;
+
+import java.util.List;
+
+/**
+ * Default Dispatcher assigning each hall call to the car with the lowest
+ * estimated time to reach the calling floor.
+ * 
+ * The estimate counts the floors to travel (a car moving away from the call,
+ * or towards it in the opposite direction, first finishes its run to the
+ * furthest request ahead) plus a penalty for every stop already pending on
+ * the car, including the calls of a burst already assigned to it. A full car
+ * passes calls by, so it only gets a call when every car is full.
+ */
+public class NearestCarDispatcher implements Dispatcher {
+    
+    // Estimated cost of one pending stop, in floors of travel
+    private static final int STOP_PENALTY_FLOORS = 3;
+    // Added to the cost of a full car, beyond the cost of any car with room
+    private static final long FULL_CAR_PENALTY = 1L << 40;
+    
+    @Override
+    public int assignCar(int floor, Elevator.Direction direction, List<Elevator> cars) {
+        return assignCar(floor, direction, cars, new int[cars.size()]);
+    }
+    
+    @Override
+    public int assignCar(int floor, Elevator.Direction direction, List<Elevator> cars, int[] assignedCalls) {
+        int bestCar = 0;
+        long bestCost = Long.MAX_VALUE;
+        for (int car = 0; car < cars.size(); car++) {
+            long cost = estimateCost(cars.get(car), floor, direction)
+                        + (long) STOP_PENALTY_FLOORS * assignedCalls[car];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestCar = car;
+            }
+        }
+        return bestCar;
+    }
+    
+    /**
+     * Estimate the cost for a car to pick up a call, in floors of travel.
+     * A car only picks up a call on its way when the call goes in its travel direction.
+     */
+    private long estimateCost(Elevator elevator, int floor, Elevator.Direction direction) {
+        int carFloor = elevator.getFloor();
+        Elevator.Direction carDirection = elevator.getDirection();
+        
+        long distance;
+        if (carDirection == Elevator.Direction.UP
+                && (floor < carFloor || direction == Elevator.Direction.DOWN)) {
+            // Finish the run up to the highest request (or the call), then come back down
+            int turn = Math.max(Math.max(carFloor, floor), elevator.nextRequestBelow(Integer.MAX_VALUE));
+            distance = (turn - carFloor) + (turn - floor);
+        } else if (carDirection == Elevator.Direction.DOWN
+                && (floor > carFloor || direction == Elevator.Direction.UP)) {
+            // Finish the run down to the lowest request (or the call), then come back up
+            int lowest = elevator.nextRequestAbove(Integer.MIN_VALUE);
+            int turn = Math.min(carFloor, floor);
+            if (lowest != Elevator.NO_REQUEST) {
+                turn = Math.min(turn, lowest);
+            }
+            distance = (carFloor - turn) + (floor - turn);
+        } else {
+            distance = Math.abs(floor - carFloor);
+        }
+        long cost = distance + (long) STOP_PENALTY_FLOORS * elevator.getRequestCount();
+        return elevator.isFull() ? cost + FULL_CAR_PENALTY : cost;
+    }
+}
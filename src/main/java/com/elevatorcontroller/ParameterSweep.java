@@ -0,0 +1,297 @@
+package com.elevatorcontroller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParameterSweep class running Monte Carlo simulations of a building over a set of parameter points.
+ *
+ * Variables:
+ * - building: floors and number of cars, the same for every point
+ * - traffic: pattern and arrival rate of the users, arriving as in a TrafficGenerator
+ *   scenario with the run seed
+ * - durationMillis, drainMillis: arrivals last durationMillis, then the building
+ *   has drainMillis more to serve the users (virtual time)
+ * - runsPerPoint, seed: each point is simulated runsPerPoint times, with run seeds
+ *   derived from the sweep seed
+ *
+ * Behavior:
+ * - Every run is an isolated SystemController in virtual time, run as one task
+ *   on a fork-join pool; runs share no state, so they scale with the cores
+ * - Run i of every point uses the same seed (common random numbers): the points
+ *   see the same arrivals, so their differences come from the parameters
+ * - The wait and ride histograms of the runs of a point are merged into its result
+ * - The results can be written as a CSV table, one row per point
+ */
+public class ParameterSweep {
+
+    private final int lowestFloor;
+    private final int highestFloor;
+    private final int carCount;
+    private TrafficPattern pattern = TrafficPattern.INTER_FLOOR;
+    private double arrivalsPerMinute = 10;
+    private long durationMillis = 60 * 60 * 1000L;
+    private long drainMillis = 60 * 60 * 1000L;
+    private int runsPerPoint = 8;
+    private long seed = 0;
+
+    /**
+     * Parameters of one simulated building
+     */
+    public static final class Point {
+        private final Timings timings;
+        private final double enterProbability;
+
+        /**
+         * Constructor for Point
+         * @param timings the durations of the car and door motions
+         * @param enterProbability the probability of a user entering the elevator
+         */
+        public Point(Timings timings, double enterProbability) {
+            if (!(enterProbability >= 0.0 && enterProbability <= 1.0)) {
+                throw new IllegalArgumentException("Probability must be between 0 and 1: " + enterProbability);
+            }
+            this.timings = Objects.requireNonNull(timings, "timings");
+            this.enterProbability = enterProbability;
+        }
+
+        public Timings getTimings() {
+            return timings;
+        }
+
+        public double getEnterProbability() {
+            return enterProbability;
+        }
+
+        @Override
+        public String toString() {
+            return timings + String.format(Locale.ROOT, " enter=%.2f", enterProbability);
+        }
+    }
+
+    /**
+     * Statistics of the runs of one point
+     */
+    public static final class Result {
+        private final Point point;
+        private final int runs;
+        private long users;
+        private long served;
+        private final LatencyHistogram waitTime = new LatencyHistogram();
+        private final LatencyHistogram rideTime = new LatencyHistogram();
+
+        Result(Point point, int runs) {
+            this.point = point;
+            this.runs = runs;
+        }
+
+        void add(long runUsers, SystemMetrics metrics) {
+            users += runUsers;
+            served += metrics.getRidersServed();
+            waitTime.add(metrics.getWaitTime());
+            rideTime.add(metrics.getRideTime());
+        }
+
+        public Point getPoint() {
+            return point;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        /**
+         * Get the number of users who arrived, over every run
+         */
+        public long getUsers() {
+            return users;
+        }
+
+        /**
+         * Get the number of users who reached their destination, over every run
+         */
+        public long getServed() {
+            return served;
+        }
+
+        /**
+         * Get the wait times (call to door open) of every run
+         */
+        public LatencyHistogram getWaitTime() {
+            return waitTime;
+        }
+
+        /**
+         * Get the ride times (boarding to destination door open) of every run
+         */
+        public LatencyHistogram getRideTime() {
+            return rideTime;
+        }
+
+        @Override
+        public String toString() {
+            return point + ": users=" + users + " served=" + served + " wait[" + waitTime + "] ride[" + rideTime + "]";
+        }
+    }
+
+    /**
+     * Constructor for ParameterSweep
+     * @param lowestFloor the lowest floor of the simulated buildings (the lobby)
+     * @param highestFloor the highest floor of the simulated buildings
+     * @param carCount the number of cars of the simulated buildings
+     */
+    public ParameterSweep(int lowestFloor, int highestFloor, int carCount) {
+        if (highestFloor <= lowestFloor) {
+            throw new IllegalArgumentException("A sweep needs at least two floors");
+        }
+        if (carCount < 1) {
+            throw new IllegalArgumentException("A building needs at least one car");
+        }
+        this.lowestFloor = lowestFloor;
+        this.highestFloor = highestFloor;
+        this.carCount = carCount;
+    }
+
+    /**
+     * Set the traffic of the simulations (inter-floor, 10 users per minute by default)
+     */
+    public void setTraffic(TrafficPattern pattern, double arrivalsPerMinute) {
+        if (arrivalsPerMinute <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + arrivalsPerMinute);
+        }
+        this.pattern = Objects.requireNonNull(pattern, "pattern");
+        this.arrivalsPerMinute = arrivalsPerMinute;
+    }
+
+    /**
+     * Set the simulated time of each run (one hour of arrivals and one hour to drain by default)
+     */
+    public void setDuration(long durationMillis, long drainMillis) {
+        if (durationMillis <= 0 || drainMillis < 0) {
+            throw new IllegalArgumentException("Invalid duration: " + durationMillis + " + " + drainMillis);
+        }
+        this.durationMillis = durationMillis;
+        this.drainMillis = drainMillis;
+    }
+
+    /**
+     * Set the number of runs of each point (8 by default)
+     */
+    public void setRunsPerPoint(int runsPerPoint) {
+        if (runsPerPoint < 1) {
+            throw new IllegalArgumentException("A point needs at least one run: " + runsPerPoint);
+        }
+        this.runsPerPoint = runsPerPoint;
+    }
+
+    /**
+     * Set the seed from which the run seeds are derived (0 by default)
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Run the sweep on the common fork-join pool
+     */
+    public List<Result> run(List<Point> points) throws InterruptedException {
+        return run(points, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the sweep on the given fork-join pool
+     * @return one result per point, in the order of the points
+     */
+    public List<Result> run(List<Point> points, ForkJoinPool pool) throws InterruptedException {
+        long[] runSeeds = new long[runsPerPoint];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int run = 0; run < runsPerPoint; run++) {
+            runSeeds[run] = seeds.nextLong();
+        }
+
+        List<Callable<SystemMetrics>> tasks = new ArrayList<>();
+        List<long[]> users = new ArrayList<>();
+        for (Point point : points) {
+            for (long runSeed : runSeeds) {
+                long[] count = new long[1];
+                users.add(count);
+                tasks.add(() -> simulate(point, runSeed, count));
+            }
+        }
+        List<Future<SystemMetrics>> runs = pool.invokeAll(tasks);
+
+        List<Result> results = new ArrayList<>();
+        for (int p = 0; p < points.size(); p++) {
+            Result result = new Result(points.get(p), runsPerPoint);
+            for (int run = 0; run < runsPerPoint; run++) {
+                int index = p * runsPerPoint + run;
+                result.add(users.get(index)[0], getRun(runs.get(index)));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Write the results as a CSV table, one row per point
+     */
+    public static void writeTable(List<Result> results, Appendable out) throws IOException {
+        out.append("movement,acceleration,stop,dwell,opening,closing,exit,enter,runs,users,served,"
+                   + "wait_mean,wait_p50,wait_p95,wait_p99,ride_mean,ride_p50,ride_p95,ride_p99\n");
+        for (Result result : results) {
+            Timings timings = result.getPoint().getTimings();
+            LatencyHistogram wait = result.getWaitTime();
+            LatencyHistogram ride = result.getRideTime();
+            out.append(String.format(Locale.ROOT, "%d,%d,%d,%d,%d,%d,%d,%.2f,%d,%d,%d,%.1f,%d,%d,%d,%.1f,%d,%d,%d%n",
+                timings.getMovementTime(), timings.getAccelerationTime(), timings.getStopTime(),
+                timings.getDoorDwellTime(), timings.getDoorOpeningTime(), timings.getDoorClosingTime(),
+                timings.getDoorExitTime(),
+                result.getPoint().getEnterProbability(), result.getRuns(), result.getUsers(), result.getServed(),
+                wait.getMean(), wait.getP50(), wait.getP95(), wait.getP99(),
+                ride.getMean(), ride.getP50(), ride.getP95(), ride.getP99()));
+        }
+    }
+
+    /**
+     * Simulate one building in virtual time; the building is shut down once the run is over
+     * @param users receives the number of users who arrived
+     * @return the metrics of the run
+     */
+    private SystemMetrics simulate(Point point, long runSeed, long[] users) throws InterruptedException {
+        try (SystemController building = new SystemController(lowestFloor, highestFloor, carCount,
+                                                              new VirtualClock())) {
+            building.setEventLog(EventLog.silent());
+            building.setTimings(point.getTimings());
+            building.setEnterProbability(point.getEnterProbability());
+            building.setRandomSeed(runSeed);
+            building.start();
+
+            // Same arrivals as a TrafficGenerator scenario, fed as users making their own decisions
+            TrafficGenerator traffic = new TrafficGenerator(building, pattern, arrivalsPerMinute, runSeed);
+            traffic.scheduleArrivals(durationMillis, (sourceFloor, destinationFloor, arrivalTime) -> {
+                Elevator.Direction direction = destinationFloor > sourceFloor ? Elevator.Direction.UP
+                                                                              : Elevator.Direction.DOWN;
+                building.addRider(new User((int) users[0]++, sourceFloor, destinationFloor, direction, building));
+            });
+
+            building.runFor(durationMillis + drainMillis);
+            return building.getMetrics();
+        }
+    }
+
+    private static SystemMetrics getRun(Future<SystemMetrics> run) throws InterruptedException {
+        try {
+            return run.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+    }
+}
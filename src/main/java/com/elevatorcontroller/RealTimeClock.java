@@ -0,0 +1,35 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Real-time implementation of Clock, used for live demos.
+ * Waiting for a deadline really blocks the calling thread.
+ * Time is monotonic (System.nanoTime in milliseconds, from an arbitrary origin),
+ * so adjustments of the wall clock neither reorder events nor skew latencies.
+ */
+public class RealTimeClock implements Clock {
+    
+    @Override
+    public long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+    
+    @Override
+    public void awaitUntil(long deadline, Condition condition) throws InterruptedException {
+        if (deadline == Long.MAX_VALUE) {
+            condition.await();
+            return;
+        }
+        long remaining = deadline - now();
+        if (remaining > 0) {
+            condition.await(remaining, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ride class tracking a ride requested with SystemController.requestRide.
+ * Unlike a User, a ride has no thread and never declines to enter: it only
+ * records the events of its car and completes its future on exit.
+ * 
+ * Variables:
+ * - car: the car assigned to the call
+ * - requestTime, boardingTime, arrivalTime: milestones on the building clock
+ * - result: completed with a RideResult when the rider exits
+ */
+final class Ride implements Rider {
+    
+    private final int sourceFloor;
+    private final int destinationFloor;
+    private final Elevator.Direction direction;
+    private final SystemController system;
+    private final CompletableFuture<RideResult> result = new CompletableFuture<>();
+    
+    // Written and read on the scheduler only
+    private int car;
+    private long requestTime;
+    private long boardingTime;
+    private long boardingStopCount;
+    private long arrivalTime;
+    
+    Ride(int sourceFloor, int destinationFloor, SystemController system) {
+        this.sourceFloor = sourceFloor;
+        this.destinationFloor = destinationFloor;
+        this.direction = destinationFloor > sourceFloor ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+        this.system = system;
+    }
+    
+    /**
+     * Call the elevator for this ride
+     * @return the car assigned to the call
+     */
+    int callElevator() {
+        requestTime = system.getScheduler().now();
+        car = system.callElevator(sourceFloor, direction);
+        return car;
+    }
+    
+    @Override
+    public boolean onStartDoorOpened() {
+        boardingTime = system.getScheduler().now();
+        boardingStopCount = system.getMetrics().getStops(car);
+        system.getMetrics().recordWait(boardingTime - requestTime);
+        system.getElevator(car).addDestination(destinationFloor);
+        return true;
+    }
+    
+    @Override
+    public void onDestinationReached() {
+        arrivalTime = system.getScheduler().now();
+    }
+    
+    @Override
+    public void onDestinationDoorOpened() {
+        long exitTime = system.getScheduler().now();
+        system.getMetrics().recordRide(exitTime - boardingTime,
+                                       system.getMetrics().getStops(car) - boardingStopCount);
+        result.complete(new RideResult(car, sourceFloor, destinationFloor, requestTime,
+                                       boardingTime, arrivalTime, exitTime));
+    }
+    
+    @Override
+    public int recall() {
+        // The wait keeps running from the first request
+        car = system.callElevator(sourceFloor, direction);
+        return car;
+    }
+    
+    CompletableFuture<RideResult> getResult() {
+        return result;
+    }
+    
+    @Override
+    public int getStartFloor() {
+        return sourceFloor;
+    }
+    
+    @Override
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+    
+    @Override
+    public Elevator.Direction getDirection() {
+        return direction;
+    }
+}
@@ -0,0 +1,91 @@
+package com.elevatorcontroller;
+
+/**
+ * RideResult class describing a completed ride requested with SystemController.requestRide.
+ * Times are in milliseconds of the building clock (real or virtual).
+ * 
+ * Variables:
+ * - car: the car that carried the rider
+ * - sourceFloor, destinationFloor: the floors of the ride
+ * - requestTime: when the ride was requested
+ * - boardingTime: when the door opened for the rider at the source floor
+ * - arrivalTime: when the car stopped at the destination floor
+ * - exitTime: when the door opened at the destination floor
+ */
+public final class RideResult {
+    
+    private final int car;
+    private final int sourceFloor;
+    private final int destinationFloor;
+    private final long requestTime;
+    private final long boardingTime;
+    private final long arrivalTime;
+    private final long exitTime;
+    
+    RideResult(int car, int sourceFloor, int destinationFloor, long requestTime,
+               long boardingTime, long arrivalTime, long exitTime) {
+        this.car = car;
+        this.sourceFloor = sourceFloor;
+        this.destinationFloor = destinationFloor;
+        this.requestTime = requestTime;
+        this.boardingTime = boardingTime;
+        this.arrivalTime = arrivalTime;
+        this.exitTime = exitTime;
+    }
+    
+    /**
+     * Get the time spent waiting for the car, from the request to boarding
+     */
+    public long getWaitTime() {
+        return boardingTime - requestTime;
+    }
+    
+    /**
+     * Get the time spent in the car, from boarding to exit
+     */
+    public long getRideTime() {
+        return exitTime - boardingTime;
+    }
+    
+    /**
+     * Get the total time of the ride, from the request to exit
+     */
+    public long getTotalTime() {
+        return exitTime - requestTime;
+    }
+    
+    // Getters
+    public int getCar() {
+        return car;
+    }
+    
+    public int getSourceFloor() {
+        return sourceFloor;
+    }
+    
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+    
+    public long getRequestTime() {
+        return requestTime;
+    }
+    
+    public long getBoardingTime() {
+        return boardingTime;
+    }
+    
+    public long getArrivalTime() {
+        return arrivalTime;
+    }
+    
+    public long getExitTime() {
+        return exitTime;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ride %d->%d on car %d: wait=%dms ride=%dms",
+                             sourceFloor, destinationFloor, car, getWaitTime(), getRideTime());
+    }
+}
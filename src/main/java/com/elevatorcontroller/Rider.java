@@ -0,0 +1,36 @@
+package com.elevatorcontroller;
+
+/**
+ * Rider interface for passengers driven by the events of a car rather than by
+ * a thread of their own. The car calls the hooks from the scheduler.
+ */
+interface Rider {
+    
+    int getStartFloor();
+    
+    int getDestinationFloor();
+    
+    Elevator.Direction getDirection();
+    
+    /**
+     * The door opened at the start floor with the car going the rider's way
+     * @return true if the rider entered the car
+     */
+    boolean onStartDoorOpened();
+    
+    /**
+     * The car stopped at the rider's destination, before its door opens
+     */
+    void onDestinationReached();
+    
+    /**
+     * The door opened at the rider's destination
+     */
+    void onDestinationDoorOpened();
+    
+    /**
+     * The car was full when its door opened: call the elevator again
+     * @return the car assigned to the new call
+     */
+    int recall();
+}
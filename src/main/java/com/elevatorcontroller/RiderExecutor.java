@@ -0,0 +1,84 @@
+package com.elevatorcontroller;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RiderExecutor class running User journeys in real-time mode.
+ * 
+ * Each rider spends most of its journey blocked on door and elevator
+ * conditions, so one thread per rider is the natural model. On Java 21+
+ * riders run on virtual threads, which lets a single process simulate
+ * hundreds of thousands of concurrent riders; on older runtimes (the project
+ * targets Java 11) it falls back to daemon platform threads.
+ */
+public final class RiderExecutor {
+    
+    private static final AtomicInteger platformThreadCount = new AtomicInteger();
+    
+    private final ExecutorService executor;
+    private final boolean virtual;
+    
+    private RiderExecutor(ExecutorService executor, boolean virtual) {
+        this.executor = executor;
+        this.virtual = virtual;
+    }
+    
+    /**
+     * Create an executor running each rider on its own virtual thread,
+     * or on its own platform thread when virtual threads are not available
+     */
+    public static RiderExecutor virtualThreads() {
+        try {
+            // Looked up reflectively so the project still compiles for Java 11
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new RiderExecutor((ExecutorService) factory.invoke(null), true);
+        } catch (ReflectiveOperationException e) {
+            return platformThreads();
+        }
+    }
+    
+    /**
+     * Create an executor running each rider on its own daemon platform thread
+     */
+    public static RiderExecutor platformThreads() {
+        ExecutorService executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "Rider-" + platformThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new RiderExecutor(executor, false);
+    }
+    
+    /**
+     * Start a rider journey
+     */
+    public void execute(Runnable rider) {
+        executor.execute(rider);
+    }
+    
+    /**
+     * Check if riders run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+    
+    /**
+     * Stop accepting riders and interrupt the journeys still running
+     */
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Wait until every started journey has finished, after shutdown
+     * @return true if all journeys finished before the timeout
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
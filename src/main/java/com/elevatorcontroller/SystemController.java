@@ -1,8 +1,15 @@
 package com.elevatorcontroller;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * SystemController class managing the overall elevator system.
@@ -10,199 +17,689 @@ import java.util.concurrent.locks.Condition;
  * Overall behavior specifications:
  * - When the elevator is in motion, no doors are open
  * - A user who requests the elevator will inevitably enter it
- * - There is never more than one door open at a time
+ * - There is never more than one door open at a time (per car)
  * - The distance traveled by a user is always equal to (source to destination)
+ * 
+ * A building has one or more cars, each with its own movement loop and its
+ * own door at every floor. Hall calls are assigned to a car by a Dispatcher.
+ * 
+ * The cars are driven by an EventScheduler. With a RealTimeClock the
+ * scheduler runs on its own thread in wall-clock time; with a VirtualClock
+ * nothing runs until runFor() is called, and simulated time jumps from event
+ * to event.
+ * 
+ * Lifecycle: the building is configured (timings, event log, rider executor...)
+ * after it is created, then start() starts the cars. drain() stops
+ * accepting new riders and waits until the building is quiescent (every car
+ * parked with no request and every rider done); shutdown() stops the cars,
+ * interrupts the rider threads and cancels the pending rides, and
+ * awaitTermination() waits for the threads to end. A rider executor set by
+ * the caller is left running: only the building's own executor is shut down.
  */
-public class SystemController {
+public class SystemController implements AutoCloseable {
+    
+    /** Default probability of a user entering the elevator when the door opens */
+    public static final double DEFAULT_ENTER_PROBABILITY = 0.9;
     
-    private final Elevator elevator;
-    private final Map<Integer, Door> doors;
+    private final List<CarController> cars;
+    private final List<Elevator> elevators;
+    private final Dispatcher dispatcher;
     private final int lowestFloor;
     private final int highestFloor;
+    private final EventScheduler scheduler;
+    private final SystemMetrics metrics;
+    private volatile RiderExecutor riderExecutor = RiderExecutor.virtualThreads();
+    private volatile boolean ownsRiderExecutor = true;
+    private volatile EventLog eventLog = EventLog.console();
+    private volatile long randomSeed = new SplittableRandom().nextLong();
+    private volatile double enterProbability = DEFAULT_ENTER_PROBABILITY;
+    private volatile Timings timings = Timings.DEFAULTS;
     
-    private volatile Door openDoor = null;
-    private final ReentrantLock doorLock = new ReentrantLock();
-    private final Condition doorStateChanged = doorLock.newCondition();
+    // Lifecycle
+    private volatile Thread dispatcherThread;
+    private volatile boolean started = false;
+    private volatile boolean accepting = true;
+    private volatile boolean shutdown = false;
+    private final AtomicInteger threadRiders = new AtomicInteger();
+    private final Set<Thread> riderThreads = ConcurrentHashMap.newKeySet();
+    private final Set<Ride> pendingRides = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private final Condition activityChanged = lifecycleLock.newCondition();
     
-    // Time constants (in milliseconds)
-    private static final long MOVEMENT_TIME = 200; // Time between floor movements
-    private static final long STOP_TIME = 300;     // Time for elevator to stop and operate doors
+    /**
+     * Constructor for SystemController running one car in real time
+     * @param lowestFloor the lowest floor in the building
+     * @param highestFloor the highest floor in the building
+     */
+    public SystemController(int lowestFloor, int highestFloor) {
+        this(lowestFloor, highestFloor, new RealTimeClock());
+    }
+    
+    /**
+     * Constructor for SystemController running one car
+     * @param lowestFloor the lowest floor in the building
+     * @param highestFloor the highest floor in the building
+     * @param clock the clock driving the simulation (real or virtual time)
+     */
+    public SystemController(int lowestFloor, int highestFloor, Clock clock) {
+        this(lowestFloor, highestFloor, 1, clock);
+    }
+    
+    /**
+     * Constructor for SystemController running a group of cars with the default dispatcher
+     * @param lowestFloor the lowest floor in the building
+     * @param highestFloor the highest floor in the building
+     * @param carCount the number of cars in the building
+     * @param clock the clock driving the simulation (real or virtual time)
+     */
+    public SystemController(int lowestFloor, int highestFloor, int carCount, Clock clock) {
+        this(lowestFloor, highestFloor, carCount, clock, new NearestCarDispatcher());
+    }
     
     /**
      * Constructor for SystemController
      * @param lowestFloor the lowest floor in the building
      * @param highestFloor the highest floor in the building
+     * @param carCount the number of cars in the building
+     * @param clock the clock driving the simulation (real or virtual time)
+     * @param dispatcher the strategy assigning hall calls to cars
      */
-    public SystemController(int lowestFloor, int highestFloor) {
+    public SystemController(int lowestFloor, int highestFloor, int carCount, Clock clock,
+                            Dispatcher dispatcher) {
+        if (carCount < 1) {
+            throw new IllegalArgumentException("A building needs at least one car");
+        }
         this.lowestFloor = lowestFloor;
         this.highestFloor = highestFloor;
-        this.elevator = new Elevator(lowestFloor, highestFloor);
-        this.doors = new HashMap<>();
+        this.dispatcher = dispatcher;
+        this.scheduler = new EventScheduler(clock);
+        this.metrics = new SystemMetrics(carCount, clock);
         
-        // Create doors for each floor
-        for (int floor = lowestFloor; floor <= highestFloor; floor++) {
-            doors.put(floor, new Door(floor, elevator));
+        // Create the cars, each with its own doors
+        List<CarController> carList = new ArrayList<>();
+        List<Elevator> elevatorList = new ArrayList<>();
+        for (int car = 0; car < carCount; car++) {
+            CarController controller = new CarController(car, lowestFloor, highestFloor, scheduler, metrics);
+            carList.add(controller);
+            elevatorList.add(controller.getElevator());
         }
-        
-        // Start elevator controller thread
-        startElevatorController();
+        this.cars = Collections.unmodifiableList(carList);
+        this.elevators = Collections.unmodifiableList(elevatorList);
+    }
+    
+    /**
+     * Start the cars. In real-time mode the scheduler starts running on its own
+     * thread; in virtual-time mode the cars move once the simulation is run.
+     * Requests made before the start are served once the cars run.
+     * Does nothing if the building is already started.
+     * @throws IllegalStateException if the building is shut down
+     */
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (shutdown) {
+                throw new IllegalStateException("The building is shut down");
+            }
+            if (started) {
+                return;
+            }
+            started = true;
+        } finally {
+            lifecycleLock.unlock();
+        }
+        startElevatorControllers();
     }
     
     /**
      * Call the elevator from a specific floor in a specific direction
+     * @return the index of the car assigned to the call, or -1 if the floor is invalid
      */
-    public void callElevator(int floor, Elevator.Direction direction) {
+    public int callElevator(int floor, Elevator.Direction direction) {
         if (floor < lowestFloor || floor > highestFloor) {
+            return -1;
+        }
+        
+        int car = cars.size() == 1 ? 0 : dispatcher.assignCar(floor, direction, elevators);
+        elevators.get(car).addCall(floor, direction);
+        return car;
+    }
+    
+    /**
+     * Call the elevator for a burst of hall calls. Each call is assigned against
+     * the state at the start of the burst plus the calls of the burst already
+     * assigned, then every car receives its share with a single lock acquisition
+     * and one wake-up.
+     * @param floors the floors of the calls
+     * @param directions the direction of each call
+     * @return the index of the car assigned to each call, or -1 for an invalid floor
+     */
+    public int[] callElevatorBatch(int[] floors, Elevator.Direction[] directions) {
+        if (directions.length != floors.length) {
+            throw new IllegalArgumentException("One direction is needed per floor");
+        }
+        int[] assigned = new int[floors.length];
+        int[] callsPerCar = new int[cars.size()];
+        for (int i = 0; i < floors.length; i++) {
+            if (floors[i] < lowestFloor || floors[i] > highestFloor) {
+                assigned[i] = -1;
+            } else {
+                assigned[i] = cars.size() == 1 ? 0
+                              : dispatcher.assignCar(floors[i], directions[i], elevators, callsPerCar);
+                callsPerCar[assigned[i]]++;
+            }
+        }
+        
+        for (int car = 0; car < cars.size(); car++) {
+            if (callsPerCar[car] == 0) {
+                continue;
+            }
+            int[] carFloors = new int[callsPerCar[car]];
+            Elevator.Direction[] carDirections = new Elevator.Direction[callsPerCar[car]];
+            int next = 0;
+            for (int i = 0; i < floors.length; i++) {
+                if (assigned[i] == car) {
+                    carFloors[next] = floors[i];
+                    carDirections[next] = directions[i];
+                    next++;
+                }
+            }
+            elevators.get(car).addCalls(carFloors, carDirections);
+        }
+        return assigned;
+    }
+    
+    /**
+     * Add a rider to the building.
+     * In real-time mode the rider runs on the rider executor; in virtual-time mode
+     * it is driven by door events on the scheduler.
+     * @throws IllegalStateException if the building is draining or shut down
+     */
+    public void addRider(User user) {
+        if (!accepting) {
+            throw new IllegalStateException("The building no longer accepts riders");
+        }
+        if (!scheduler.getClock().isVirtual()) {
+            threadRiders.incrementAndGet();
+            try {
+                riderExecutor.execute(() -> {
+                    Thread thread = Thread.currentThread();
+                    riderThreads.add(thread);
+                    try {
+                        if (!shutdown) {
+                            user.run();
+                        }
+                    } finally {
+                        riderThreads.remove(thread);
+                        threadRiders.decrementAndGet();
+                        signalActivity();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                threadRiders.decrementAndGet();
+                throw new IllegalStateException("The building no longer accepts riders", e);
+            }
             return;
         }
         
-        elevator.addCall(floor);
+        user.onArrival();
+        cars.get(user.getCar()).addWaitingRider(user);
     }
     
     /**
-     * Get the door at a specific floor
+     * Request a ride without a thread per rider: the ride is driven by the door
+     * events of its car and never declines to enter.
+     * The stage completes when the rider exits at the destination, with the times
+     * of the request, boarding, arrival and exit. It completes on the scheduler,
+     * so slow dependent actions should use the async variants.
+     * @param sourceFloor the floor where the rider waits
+     * @param destinationFloor the floor where the rider goes
+     * @return the stage completed on exit, failed with IllegalArgumentException
+     *         if a floor is invalid or both floors are the same, with
+     *         IllegalStateException if the building no longer accepts riders, or
+     *         with CancellationException if the building is shut down before the exit
+     */
+    public CompletionStage<RideResult> requestRide(int sourceFloor, int destinationFloor) {
+        if (!accepting) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                "The building no longer accepts riders"));
+        }
+        if (sourceFloor < lowestFloor || sourceFloor > highestFloor
+                || destinationFloor < lowestFloor || destinationFloor > highestFloor
+                || sourceFloor == destinationFloor) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                "Invalid ride from floor " + sourceFloor + " to floor " + destinationFloor));
+        }
+        
+        Ride ride = new Ride(sourceFloor, destinationFloor, this);
+        pendingRides.add(ride);
+        ride.getResult().whenComplete((result, failure) -> {
+            pendingRides.remove(ride);
+            signalActivity();
+        });
+        if (shutdown) {
+            // Shut down while the ride was being registered
+            cancel(ride);
+        }
+        Runnable start = () -> cars.get(ride.callElevator()).addWaitingRider(ride);
+        if (scheduler.getClock().isVirtual()) {
+            start.run();
+        } else {
+            // Riders are only touched by the scheduler thread
+            scheduler.schedule(0, start);
+        }
+        // Hand out a copy: cancelling or completing it must not cut the ride short,
+        // the ride stays registered with its car until it completes
+        CompletableFuture<RideResult> stage = new CompletableFuture<>();
+        ride.getResult().whenComplete((result, failure) -> {
+            if (failure != null) {
+                stage.completeExceptionally(failure);
+            } else {
+                stage.complete(result);
+            }
+        });
+        return stage;
+    }
+    
+    /**
+     * Run the simulation for the given duration.
+     * Only meaningful in virtual-time mode; in real-time mode the controller runs on its own thread.
+     */
+    public void runFor(long durationMillis) throws InterruptedException {
+        scheduler.runFor(durationMillis);
+    }
+    
+    /**
+     * Get the door of the first car at a specific floor
      */
     public Door getDoor(int floor) {
-        return doors.get(floor);
+        return getDoor(0, floor);
     }
     
     /**
-     * Get the elevator
+     * Get the door of a car at a specific floor
+     */
+    public Door getDoor(int car, int floor) {
+        return cars.get(car).getDoor(floor);
+    }
+    
+    /**
+     * Get the elevator of the first car
      */
     public Elevator getElevator() {
-        return elevator;
+        return getElevator(0);
+    }
+    
+    /**
+     * Get the elevator of a car
+     */
+    public Elevator getElevator(int car) {
+        return elevators.get(car);
+    }
+    
+    /**
+     * Get the executor running riders in real-time mode
+     */
+    public RiderExecutor getRiderExecutor() {
+        return riderExecutor;
+    }
+    
+    /**
+     * Set the executor running riders in real-time mode
+     * (virtual threads when available, platform threads otherwise, by default).
+     * The executor stays owned by the caller: shutdown() interrupts the riders
+     * of this building but does not shut the executor down.
+     */
+    public void setRiderExecutor(RiderExecutor riderExecutor) {
+        this.riderExecutor = riderExecutor;
+        this.ownsRiderExecutor = false;
+    }
+    
+    /**
+     * Get the log receiving the events of the cars, doors and users
+     */
+    public EventLog getEventLog() {
+        return eventLog;
+    }
+    
+    /**
+     * Set the log receiving the events of the cars, doors and users
+     * (the shared asynchronous console log by default, EventLog.silent() for benchmarks)
+     */
+    public void setEventLog(EventLog eventLog) {
+        this.eventLog = eventLog;
+        for (CarController car : cars) {
+            car.setEventLog(eventLog);
+        }
+    }
+    
+    /**
+     * Set the number of riders each car can hold (Elevator.UNLIMITED_CAPACITY by default).
+     * A full car passes hall calls by and riders left behind call it again.
+     */
+    public void setCarCapacity(int capacity) {
+        for (Elevator elevator : elevators) {
+            elevator.setCapacity(capacity);
+        }
+    }
+    
+    /**
+     * Get the number of riders each car can hold
+     */
+    public int getCarCapacity() {
+        return elevators.get(0).getCapacity();
+    }
+    
+    /**
+     * Get the durations of the car and door motions
+     */
+    public Timings getTimings() {
+        return timings;
+    }
+    
+    /**
+     * Set the durations of the car and door motions of every car
+     * (Timings.DEFAULTS by default); motions already started keep their duration
+     */
+    public void setTimings(Timings timings) {
+        this.timings = Objects.requireNonNull(timings, "timings");
+        for (CarController car : cars) {
+            car.setTimings(timings);
+        }
     }
     
     /**
-     * Check if a door is currently open
+     * Get the seed from which the random decisions of the riders are derived
+     */
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+    
+    /**
+     * Set the seed from which the random decisions of the riders are derived.
+     * Users created afterwards draw from streams of this seed, so a run with the
+     * same seed and the same riders makes the same decisions.
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+    
+    /**
+     * Get the probability of a user entering the elevator when the door opens
+     */
+    public double getEnterProbability() {
+        return enterProbability;
+    }
+    
+    /**
+     * Set the probability of a user entering the elevator when the door opens
+     * (DEFAULT_ENTER_PROBABILITY by default, 1.0 for users who are never distracted)
+     */
+    public void setEnterProbability(double enterProbability) {
+        if (!(enterProbability >= 0.0 && enterProbability <= 1.0)) {
+            throw new IllegalArgumentException("Probability must be between 0 and 1: " + enterProbability);
+        }
+        this.enterProbability = enterProbability;
+    }
+    
+    /**
+     * Create the random source of a rider: a stream of the run seed of its own,
+     * so riders never share a generator and do not depend on their creation order
+     */
+    SplittableRandom newRiderRandom(int riderId) {
+        // A linear spread of the ids would be a multiple of the generator's own step,
+        // making the streams of consecutive riders shifted copies of each other
+        return new SplittableRandom(mix64(randomSeed + riderId));
+    }
+    
+    /**
+     * 64-bit finalizer of MurmurHash3: a bijection where every input bit affects every output bit
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+    
+    public int getLowestFloor() {
+        return lowestFloor;
+    }
+    
+    public int getHighestFloor() {
+        return highestFloor;
+    }
+    
+    /**
+     * Get the number of cars in the building
+     */
+    public int getCarCount() {
+        return cars.size();
+    }
+    
+    /**
+     * Get the rider latency and car throughput metrics of the building
+     */
+    public SystemMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Get the event scheduler driving the controller
+     */
+    public EventScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Check if a door of any car is currently open
      */
     public boolean isDoorOpen() {
-        doorLock.lock();
-        try {
-            return openDoor != null && openDoor.isOpen();
-        } finally {
-            doorLock.unlock();
+        for (CarController car : cars) {
+            if (car.isDoorOpen()) {
+                return true;
+            }
         }
+        return false;
     }
     
     /**
-     * Get the currently open door (if any)
+     * Check if a door of a specific car is currently open
+     */
+    public boolean isDoorOpen(int car) {
+        return cars.get(car).isDoorOpen();
+    }
+    
+    /**
+     * Check if a car is moving (read without locks, consistent with isDoorOpen)
+     */
+    public boolean isMoving(int car) {
+        return cars.get(car).isMoving();
+    }
+    
+    /**
+     * Get the currently open door of the first car (if any)
      */
     public Door getOpenDoor() {
-        doorLock.lock();
-        try {
-            return openDoor;
-        } finally {
-            doorLock.unlock();
-        }
+        return getOpenDoor(0);
+    }
+    
+    /**
+     * Get the currently open door of a car (if any)
+     */
+    public Door getOpenDoor(int car) {
+        return cars.get(car).getOpenDoor();
     }
     
     /**
-     * Wait until a specific door is open
+     * Wait until the door of the first car at a specific floor is open
      */
     public void waitForDoorOpen(int floor) throws InterruptedException {
-        doorLock.lock();
-        try {
-            while (openDoor == null || openDoor.getFloor() != floor || !openDoor.isOpen()) {
-                doorStateChanged.await();
-            }
-        } finally {
-            doorLock.unlock();
+        waitForDoorOpen(0, floor);
+    }
+    
+    /**
+     * Wait until the door of a car at a specific floor is open
+     */
+    public void waitForDoorOpen(int car, int floor) throws InterruptedException {
+        cars.get(car).waitForDoorOpen(floor);
+    }
+    
+    /**
+     * Start the movement loop of every car
+     */
+    private void startElevatorControllers() {
+        for (CarController car : cars) {
+            car.setIdleListener(this::signalActivity);
+            car.setRecallHandler(rider -> cars.get(rider.recall()).addWaitingRider(rider));
+            car.start();
+        }
+        if (!scheduler.getClock().isVirtual()) {
+            dispatcherThread = scheduler.startDispatcher("ElevatorController");
         }
     }
     
     /**
-     * Start the elevator controller thread that manages elevator movement and door operations
+     * Check if the building is quiescent: every car parked with no call or
+     * destination, and no rider waiting or riding
      */
-    private void startElevatorController() {
-        Thread controllerThread = new Thread(() -> {
-            try {
-                elevatorControllerBehavior();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    public boolean isQuiescent() {
+        if (threadRiders.get() != 0 || !pendingRides.isEmpty()) {
+            return false;
+        }
+        for (CarController car : cars) {
+            if (!car.isIdle()) {
+                return false;
             }
-        }, "ElevatorController");
-        controllerThread.setDaemon(false);
-        controllerThread.start();
-    }
-    
-    /**
-     * Main elevator controller behavior
-     */
-    private void elevatorControllerBehavior() throws InterruptedException {
-        while (true) {
-            // Choose direction based on calls and destinations
-            Elevator.Direction nextDirection = elevator.chooseDirection();
-            
-            if (nextDirection != Elevator.Direction.NONE) {
-                elevator.setDirection(nextDirection);
-                elevator.setMoving(true);
-                System.out.println("+ Ascenseur: + direction: " + nextDirection);
-                
-                // Move the elevator one floor
-                Thread.sleep(MOVEMENT_TIME);
-                elevator.moveOneFloor();
-                System.out.println("+ Ascenseur: + Etage: " + elevator.getFloor());
-                
-                // Check if we need to stop at this floor
-                if (elevator.hasCallOrDestinationAtCurrentFloor()) {
-                    elevator.setMoving(false);
-                    System.out.println("+ Ascenseur: + arrêt à l'étage " + elevator.getFloor());
-                    
-                    // Operate the door
-                    operateDoor(elevator.getFloor());
-                    
-                    // Clear calls and destinations for this floor
-                    elevator.clearCallsAndDestinationsAtCurrentFloor();
-                    
-                    System.out.println("+ Ascenseur: + fin de l'arrêt");
-                    Thread.sleep(STOP_TIME);
+        }
+        return true;
+    }
+    
+    /**
+     * Wait until the building is quiescent, at most for the given time.
+     * In virtual-time mode the simulation is run until then.
+     * @return true if the building is quiescent, false if the time elapsed first
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        if (scheduler.getClock().isVirtual()) {
+            return scheduler.runUntil(scheduler.now() + unit.toMillis(timeout), this::isQuiescent);
+        }
+        long nanos = unit.toNanos(timeout);
+        lifecycleLock.lock();
+        try {
+            while (!isQuiescent()) {
+                if (nanos <= 0 || shutdown) {
+                    return isQuiescent();
                 }
-            } else {
-                // No calls or destinations, wait briefly before checking again
-                elevator.setMoving(false);
-                Thread.sleep(100);
+                nanos = activityChanged.awaitNanos(nanos);
             }
+            return true;
+        } finally {
+            lifecycleLock.unlock();
         }
     }
     
     /**
-     * Operate the door at the specified floor
+     * Stop accepting new riders and wait until the riders already in the building
+     * are served, at most for the given time. Hall calls and destinations are
+     * still accepted, so the riders already in the building can finish.
+     * @return true if the building is quiescent, false if the time elapsed first
      */
-    private void operateDoor(int floor) throws InterruptedException {
-        doorLock.lock();
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        accepting = false;
+        return awaitQuiescence(timeout, unit);
+    }
+    
+    /**
+     * Shutdown the system: stop accepting riders, stop the cars, interrupt the
+     * rider threads and cancel the pending rides. Does nothing if already shut down.
+     * The rider executor created by the building is shut down with it; one set
+     * with setRiderExecutor is left to the caller.
+     */
+    public void shutdown() {
+        lifecycleLock.lock();
         try {
-            // Set this door as the open door
-            openDoor = doors.get(floor);
-            doorStateChanged.signalAll();
+            if (shutdown) {
+                return;
+            }
+            accepting = false;
+            shutdown = true;
+            activityChanged.signalAll();
         } finally {
-            doorLock.unlock();
+            lifecycleLock.unlock();
         }
         
-        Door door = doors.get(floor);
+        scheduler.stop();
+        if (ownsRiderExecutor) {
+            riderExecutor.shutdownNow();
+        } else {
+            for (Thread thread : riderThreads) {
+                thread.interrupt();
+            }
+        }
+        for (Ride ride : pendingRides) {
+            cancel(ride);
+        }
+    }
+    
+    /**
+     * Shutdown the system (see shutdown())
+     */
+    @Override
+    public void close() {
+        shutdown();
+    }
+    
+    /**
+     * Check if the system was shut down
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+    
+    /**
+     * Wait until the controller and rider threads have ended, after shutdown
+     * @return true if every thread ended before the timeout
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Thread dispatcher = dispatcherThread;
+        if (dispatcher != null) {
+            TimeUnit.NANOSECONDS.timedJoin(dispatcher, Math.max(0, deadline - System.nanoTime()));
+            if (dispatcher.isAlive()) {
+                return false;
+            }
+        }
+        if (ownsRiderExecutor) {
+            return riderExecutor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        // The caller's executor keeps running: wait for the riders of this building only
+        lifecycleLock.lock();
         try {
-            // Open door
-            door.openDoor();
-            
-            // Keep door open for a while
-            Thread.sleep(300);
-            
-            // Close door
-            door.closeDoor();
-        } finally {
-            doorLock.lock();
-            try {
-                openDoor = null;
-                doorStateChanged.signalAll();
-            } finally {
-                doorLock.unlock();
+            while (threadRiders.get() != 0) {
+                long nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    return false;
+                }
+                activityChanged.awaitNanos(nanos);
             }
+            return true;
+        } finally {
+            lifecycleLock.unlock();
         }
     }
     
     /**
-     * Shutdown the system
+     * Wake up the threads waiting for quiescence
      */
-    public void shutdown() {
+    private void signalActivity() {
+        lifecycleLock.lock();
+        try {
+            activityChanged.signalAll();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+    
+    private static void cancel(Ride ride) {
+        ride.getResult().completeExceptionally(new CancellationException("The building was shut down"));
     }
 }
@@ -0,0 +1,177 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SystemMetrics class collecting the latency and throughput figures of a building.
+ * All times are in milliseconds of the building clock (real or virtual).
+ *
+ * Variables:
+ * - waitTime: rider wait, from the hall call to the door opening for the rider
+ * - rideTime: rider ride, from the boarding door to the destination door opening
+ * - stopsPerTrip: stops made by the car while a rider was aboard (destination included)
+ * - ridersServed: riders who reached their destination
+ * - per car: stops, floors traveled and busy time (from leaving parked to parking again)
+ *
+ * Behavior:
+ * - Counters and histograms are lock-free and can be updated from the scheduler
+ *   and from rider threads at the same time
+ * - Utilization of a car is its busy time over the time elapsed since the start
+ */
+public final class SystemMetrics {
+
+    private static final long IDLE = -1;
+
+    private final Clock clock;
+    private final long startTime;
+
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram rideTime = new LatencyHistogram();
+    private final LatencyHistogram stopsPerTrip = new LatencyHistogram();
+    private final LongAdder ridersServed = new LongAdder();
+
+    private final AtomicLongArray stops;
+    private final AtomicLongArray floorsTraveled;
+    private final AtomicLongArray busyTime;
+    private final AtomicLongArray busySince;
+
+    /**
+     * Constructor for SystemMetrics
+     * @param carCount the number of cars in the building
+     * @param clock the clock of the building, used to measure utilization
+     */
+    SystemMetrics(int carCount, Clock clock) {
+        this.clock = clock;
+        this.startTime = clock.now();
+        this.stops = new AtomicLongArray(carCount);
+        this.floorsTraveled = new AtomicLongArray(carCount);
+        this.busyTime = new AtomicLongArray(carCount);
+        this.busySince = new AtomicLongArray(carCount);
+        for (int car = 0; car < carCount; car++) {
+            busySince.set(car, IDLE);
+        }
+    }
+
+    // Recording (called by the cars and the riders)
+
+    void recordWait(long millis) {
+        waitTime.record(millis);
+    }
+
+    void recordRide(long millis, long stopsDuringRide) {
+        rideTime.record(millis);
+        stopsPerTrip.record(stopsDuringRide);
+        ridersServed.increment();
+    }
+
+    void recordStop(int car) {
+        stops.incrementAndGet(car);
+    }
+
+    void recordFloorTraveled(int car) {
+        floorsTraveled.incrementAndGet(car);
+    }
+
+    void carBusy(int car) {
+        busySince.compareAndSet(car, IDLE, clock.now());
+    }
+
+    void carIdle(int car) {
+        long since = busySince.getAndSet(car, IDLE);
+        if (since != IDLE) {
+            busyTime.addAndGet(car, clock.now() - since);
+        }
+    }
+
+    // Reading
+
+    /**
+     * Get the rider wait time histogram (hall call to door open)
+     */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * Get the rider ride time histogram (boarding to destination door open)
+     */
+    public LatencyHistogram getRideTime() {
+        return rideTime;
+    }
+
+    /**
+     * Get the histogram of the number of stops made during each ride
+     */
+    public LatencyHistogram getStopsPerTrip() {
+        return stopsPerTrip;
+    }
+
+    /**
+     * Get the number of riders who reached their destination
+     */
+    public long getRidersServed() {
+        return ridersServed.sum();
+    }
+
+    /**
+     * Get the number of stops made by a car
+     */
+    public long getStops(int car) {
+        return stops.get(car);
+    }
+
+    /**
+     * Get the number of floors traveled by a car
+     */
+    public long getFloorsTraveled(int car) {
+        return floorsTraveled.get(car);
+    }
+
+    /**
+     * Get the fraction of the time since the start during which a car was not parked
+     * @return a value between 0.0 and 1.0
+     */
+    public double getUtilization(int car) {
+        long now = clock.now();
+        long elapsed = now - startTime;
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+        long busy = busyTime.get(car);
+        long since = busySince.get(car);
+        if (since != IDLE) {
+            busy += now - since;
+        }
+        return Math.min(1.0, (double) busy / elapsed);
+    }
+
+    /**
+     * Get the number of riders served per minute since the start
+     */
+    public double getThroughputPerMinute() {
+        long elapsed = clock.now() - startTime;
+        return elapsed <= 0 ? 0.0 : ridersServed.sum() * 60_000.0 / elapsed;
+    }
+
+    /**
+     * Get the number of cars measured
+     */
+    public int getCarCount() {
+        return stops.length();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("wait: ").append(waitTime).append('\n');
+        text.append("ride: ").append(rideTime).append('\n');
+        text.append("stops/trip: ").append(stopsPerTrip).append('\n');
+        text.append(String.format("riders served: %d (%.1f/min)%n", getRidersServed(), getThroughputPerMinute()));
+        for (int car = 0; car < getCarCount(); car++) {
+            text.append(String.format("car %d: stops=%d floors=%d utilization=%.0f%%%n",
+                                      car, getStops(car), getFloorsTraveled(car), 100 * getUtilization(car)));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.elevatorcontroller;
+
+/**
+ * Timings class holding the durations (in milliseconds) of the car and door motions of a building.
+ *
+ * Variables:
+ * - movementTime: travel time between two floors at full speed
+ * - accelerationTime: time to reach full speed from rest, and to brake
+ * - stopTime: time the car waits after its door closed before moving again
+ * - doorDwellTime: time the door is kept open at a stop
+ * - doorOpeningTime, doorClosingTime: door motions
+ * - doorExitTime: time left for users to exit while the door closes
+ *
+ * Behavior:
+ * - Immutable: each with method returns a copy, so one instance can be shared
+ *   by many buildings running in parallel
+ * - DEFAULTS holds the timings of the original controller
+ */
+public final class Timings {
+
+    /** The default timings of every building */
+    public static final Timings DEFAULTS = new Timings(CarController.MOVEMENT_TIME, CarController.ACCELERATION_TIME,
+                                                       CarController.STOP_TIME, CarController.DOOR_DWELL_TIME,
+                                                       Door.DOOR_OPENING_TIME, Door.DOOR_CLOSING_TIME,
+                                                       Door.DOOR_EXIT_TIME);
+
+    private final long movementTime;
+    private final long accelerationTime;
+    private final long stopTime;
+    private final long doorDwellTime;
+    private final long doorOpeningTime;
+    private final long doorClosingTime;
+    private final long doorExitTime;
+
+    private Timings(long movementTime, long accelerationTime, long stopTime, long doorDwellTime,
+                    long doorOpeningTime, long doorClosingTime, long doorExitTime) {
+        this.movementTime = requireNonNegative(movementTime, "Movement time");
+        this.accelerationTime = requireNonNegative(accelerationTime, "Acceleration time");
+        this.stopTime = requireNonNegative(stopTime, "Stop time");
+        this.doorDwellTime = requireNonNegative(doorDwellTime, "Door dwell time");
+        this.doorOpeningTime = requireNonNegative(doorOpeningTime, "Door opening time");
+        this.doorClosingTime = requireNonNegative(doorClosingTime, "Door closing time");
+        this.doorExitTime = requireNonNegative(doorExitTime, "Door exit time");
+    }
+
+    public Timings withMovementTime(long millis) {
+        return new Timings(millis, accelerationTime, stopTime, doorDwellTime, doorOpeningTime, doorClosingTime,
+                           doorExitTime);
+    }
+
+    public Timings withAccelerationTime(long millis) {
+        return new Timings(movementTime, millis, stopTime, doorDwellTime, doorOpeningTime, doorClosingTime,
+                           doorExitTime);
+    }
+
+    public Timings withStopTime(long millis) {
+        return new Timings(movementTime, accelerationTime, millis, doorDwellTime, doorOpeningTime, doorClosingTime,
+                           doorExitTime);
+    }
+
+    public Timings withDoorDwellTime(long millis) {
+        return new Timings(movementTime, accelerationTime, stopTime, millis, doorOpeningTime, doorClosingTime,
+                           doorExitTime);
+    }
+
+    public Timings withDoorOpeningTime(long millis) {
+        return new Timings(movementTime, accelerationTime, stopTime, doorDwellTime, millis, doorClosingTime,
+                           doorExitTime);
+    }
+
+    public Timings withDoorClosingTime(long millis) {
+        return new Timings(movementTime, accelerationTime, stopTime, doorDwellTime, doorOpeningTime, millis,
+                           doorExitTime);
+    }
+
+    public Timings withDoorExitTime(long millis) {
+        return new Timings(movementTime, accelerationTime, stopTime, doorDwellTime, doorOpeningTime, doorClosingTime,
+                           millis);
+    }
+
+    // Getters
+    public long getMovementTime() {
+        return movementTime;
+    }
+
+    public long getAccelerationTime() {
+        return accelerationTime;
+    }
+
+    public long getStopTime() {
+        return stopTime;
+    }
+
+    public long getDoorDwellTime() {
+        return doorDwellTime;
+    }
+
+    public long getDoorOpeningTime() {
+        return doorOpeningTime;
+    }
+
+    public long getDoorClosingTime() {
+        return doorClosingTime;
+    }
+
+    public long getDoorExitTime() {
+        return doorExitTime;
+    }
+
+    private static long requireNonNegative(long millis, String name) {
+        if (millis < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + millis);
+        }
+        return millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("move=%d accel=%d stop=%d dwell=%d opening=%d closing=%d exit=%d", movementTime,
+                             accelerationTime, stopTime, doorDwellTime, doorOpeningTime, doorClosingTime,
+                             doorExitTime);
+    }
+}
@@ -0,0 +1,187 @@
+package com.elevatorcontroller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.elevatorcontroller.TraceFileWriter.*;
+
+/**
+ * TraceFileReader class reading a binary trace file written by TraceFileWriter.
+ *
+ * Behavior:
+ * - Only the header is read on opening; records are decoded on demand from
+ *   read-only mapped regions, so a trace of any length can be iterated
+ * - The events visible are the ones in the file when it was opened
+ * - A file not closed cleanly is recovered up to its last complete record
+ */
+public final class TraceFileReader implements AutoCloseable, Iterable<ExecutionTrace.TraceEvent> {
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] regions;
+
+    /**
+     * Open a trace file for reading
+     * @param path the trace file
+     * @throws IOException if the file cannot be opened or is not a trace file
+     */
+    public TraceFileReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            this.size = readCount(channel);
+            this.regions = new MappedByteBuffer[(int) ((size + RECORDS_PER_REGION - 1) / RECORDS_PER_REGION)];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of events in the file
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Decode the event at the given position. Its event number is truncated to an
+     * int past Integer.MAX_VALUE events: see getEventNumber for the stored number.
+     */
+    public ExecutionTrace.TraceEvent get(long index) {
+        checkIndex(index);
+        MappedByteBuffer region = region((int) (index / RECORDS_PER_REGION));
+        int position = (int) (index % RECORDS_PER_REGION) * RECORD_SIZE;
+
+        long timestamp = region.getLong(position + TIMESTAMP_OFFSET);
+        int eventNumber = (int) region.getLong(position + NUMBER_OFFSET);
+        char eventType = region.getChar(position + TYPE_OFFSET);
+        String actor = getUtf8(region, position + ACTOR_OFFSET, region.get(position + ACTOR_LENGTH_OFFSET) & 0xFF);
+        String action = getUtf8(region, position + ACTION_OFFSET, region.get(position + ACTION_LENGTH_OFFSET) & 0xFF);
+        return new ExecutionTrace.TraceEvent(eventNumber, timestamp, eventType, actor, action, action);
+    }
+
+    /**
+     * Get the event number of the event at the given position, as stored in the file
+     */
+    public long getEventNumber(long index) {
+        checkIndex(index);
+        MappedByteBuffer region = region((int) (index / RECORDS_PER_REGION));
+        return region.getLong((int) (index % RECORDS_PER_REGION) * RECORD_SIZE + NUMBER_OFFSET);
+    }
+
+    /**
+     * Iterate the events in file order, decoding one event at a time
+     */
+    @Override
+    public Iterator<ExecutionTrace.TraceEvent> iterator() {
+        return new Iterator<ExecutionTrace.TraceEvent>() {
+            private long next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public ExecutionTrace.TraceEvent next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    /**
+     * Stream the events in file order, decoding them lazily
+     */
+    public Stream<ExecutionTrace.TraceEvent> stream() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Get a region, mapping it on first use
+     */
+    private MappedByteBuffer region(int index) {
+        MappedByteBuffer region = regions[index];
+        if (region == null) {
+            long start = HEADER_SIZE + (long) index * REGION_SIZE;
+            long length = Math.min(REGION_SIZE, (size - (long) index * RECORDS_PER_REGION) * RECORD_SIZE);
+            try {
+                region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map trace file region " + index, e);
+            }
+            regions[index] = region;
+        }
+        return region;
+    }
+
+    private static String getUtf8(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check the header of a trace file and count its events: the count stored in
+     * the header, plus the complete records written after it was last stored
+     */
+    static long readCount(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(COUNT_OFFSET + Long.BYTES);
+        if (channel.read(header, 0) < header.capacity()) {
+            throw new IOException("Not a trace file: header too short");
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a trace file: bad magic number");
+        }
+        int version = header.getInt();
+        int recordSize = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace file version " + version);
+        }
+        if (recordSize != RECORD_SIZE) {
+            throw new IOException("Unsupported trace record size " + recordSize + " (expected " + RECORD_SIZE + ")");
+        }
+        long count = header.getLong();
+
+        // Recover the records of a file that was not closed cleanly
+        long capacity = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        ByteBuffer type = ByteBuffer.allocate(Character.BYTES);
+        while (count < capacity) {
+            type.clear();
+            channel.read(type, HEADER_SIZE + count * RECORD_SIZE + TYPE_OFFSET);
+            if (type.getChar(0) == 0) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,200 @@
+package com.elevatorcontroller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TraceFileWriter class appending trace events to a binary file through memory mapping.
+ *
+ * File format (big-endian):
+ * - Header of HEADER_SIZE bytes: magic, version, record size, event count
+ * - Fixed-size records of RECORD_SIZE bytes: timestamp, event number, event type,
+ *   actor and action in UTF-8 (truncated to ACTOR_BYTES and ACTION_BYTES)
+ *
+ * Behavior:
+ * - Appending is lock-free: each event claims a record with one atomic increment
+ *   and is written straight into a mapped region, so nothing stays on the heap
+ * - Regions of REGION_SIZE bytes are mapped on first use; the file grows with them
+ * - Reopening an existing file appends after its last event
+ * - force() and close() store the event count in the header. The file keeps the
+ *   length of its mapped regions: a mapped file cannot be safely truncated, and
+ *   readers only look at the records up to the count
+ */
+public final class TraceFileWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x45545243; // "ETRC"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 128;
+    static final int RECORD_SIZE = 128;
+    static final int REGION_SIZE = 1 << 24;
+    static final int RECORDS_PER_REGION = REGION_SIZE / RECORD_SIZE;
+
+    // Record layout
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int NUMBER_OFFSET = 8;
+    static final int TYPE_OFFSET = 16;
+    static final int ACTOR_LENGTH_OFFSET = 18;
+    static final int ACTION_LENGTH_OFFSET = 19;
+    static final int ACTOR_OFFSET = 20;
+    static final int ACTOR_BYTES = 32;
+    static final int ACTION_OFFSET = ACTOR_OFFSET + ACTOR_BYTES;
+    static final int ACTION_BYTES = RECORD_SIZE - ACTION_OFFSET;
+
+    // Header layout
+    static final int COUNT_OFFSET = 12;
+
+    private static final int MAX_REGIONS = 1 << 16;
+
+    private final FileChannel channel;
+    private final AtomicLong sequence;
+    private final AtomicReferenceArray<MappedByteBuffer> regions = new AtomicReferenceArray<>(MAX_REGIONS);
+    private volatile boolean closed = false;
+
+    /**
+     * Open a trace file for appending, creating it if needed
+     * @param path the trace file
+     * @throws IOException if the file cannot be opened or is not a trace file
+     */
+    public TraceFileWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        try {
+            long count = channel.size() == 0 ? writeHeader() : TraceFileReader.readCount(channel);
+            this.sequence = new AtomicLong(count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append an event, numbered after the events already in the file
+     */
+    public void append(long timestamp, char eventType, String actor, String action) {
+        if (closed) {
+            throw new IllegalStateException("Trace file is closed");
+        }
+        long sequenceNumber = sequence.getAndIncrement();
+        if (sequenceNumber >= (long) MAX_REGIONS * RECORDS_PER_REGION) {
+            throw new IllegalStateException("Trace file is full");
+        }
+        MappedByteBuffer region = region((int) (sequenceNumber / RECORDS_PER_REGION));
+        int position = (int) (sequenceNumber % RECORDS_PER_REGION) * RECORD_SIZE;
+
+        region.putLong(position + TIMESTAMP_OFFSET, timestamp);
+        region.putLong(position + NUMBER_OFFSET, sequenceNumber);
+        region.put(position + ACTOR_LENGTH_OFFSET,
+                   (byte) putUtf8(region, position + ACTOR_OFFSET, ACTOR_BYTES, actor));
+        region.put(position + ACTION_LENGTH_OFFSET,
+                   (byte) putUtf8(region, position + ACTION_OFFSET, ACTION_BYTES, action));
+        // The type is written last: a record with a type is complete
+        region.putChar(position + TYPE_OFFSET, eventType);
+    }
+
+    /**
+     * Append a recorded event
+     */
+    public void append(ExecutionTrace.TraceEvent event) {
+        append(event.timestamp, event.eventType, event.actor, event.action);
+    }
+
+    /**
+     * Get the number of events in the file, including the events appended before reopening
+     */
+    public long getEventCount() {
+        return Math.min(sequence.get(), (long) MAX_REGIONS * RECORDS_PER_REGION);
+    }
+
+    /**
+     * Store the event count and write the mapped regions to the storage device
+     */
+    public void force() throws IOException {
+        writeCount(getEventCount());
+        for (int index = 0; index < MAX_REGIONS; index++) {
+            MappedByteBuffer region = regions.get(index);
+            if (region == null) {
+                break;
+            }
+            region.force();
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Store the event count and close the file.
+     * Appends must be finished before closing.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            force();
+        } finally {
+            // Let the regions be unmapped once they are collected
+            for (int index = 0; index < MAX_REGIONS && regions.get(index) != null; index++) {
+                regions.set(index, null);
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Get a region, mapping it on first use
+     */
+    private MappedByteBuffer region(int index) {
+        MappedByteBuffer region = regions.get(index);
+        if (region == null) {
+            try {
+                regions.compareAndSet(index, null, channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + (long) index * REGION_SIZE, REGION_SIZE));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map trace file region " + index, e);
+            }
+            region = regions.get(index);
+        }
+        return region;
+    }
+
+    private long writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putLong(0L);
+        header.clear();
+        channel.write(header, 0);
+        return 0;
+    }
+
+    private void writeCount(long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(count).flip();
+        channel.write(buffer, COUNT_OFFSET);
+    }
+
+    /**
+     * Write a string in UTF-8, truncated on a character boundary to fit the field
+     * @return the number of bytes written
+     */
+    private static int putUtf8(ByteBuffer buffer, int offset, int capacity, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, capacity);
+        if (length < bytes.length) {
+            // Do not cut a multi-byte character: back up to the start of the last one
+            while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+                length--;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            buffer.put(offset + i, bytes[i]);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,164 @@
+package com.elevatorcontroller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TrafficGenerator class feeding a building with riders following a traffic pattern.
+ * 
+ * Variables:
+ * - pattern: where riders come from and go to
+ * - arrivalsPerMinute: mean arrival rate; arrivals form a Poisson process
+ * - seed: the seed of the arrivals, so a scenario can be replayed exactly
+ * 
+ * Behavior:
+ * - Draw the next arrival time (exponential gap) and schedule it at that
+ *   absolute time; each arrival schedules the next, so memory stays constant
+ * - At each arrival, request a ride from SystemController.requestRide
+ *   (the parameter sweep feeds Users instead, through scheduleArrivals)
+ * - Measure wait and trip time from the intended arrival time, not from when
+ *   the ride was actually requested, to avoid coordinated omission
+ */
+public class TrafficGenerator {
+    
+    private final SystemController system;
+    private final TrafficPattern pattern;
+    private final double arrivalsPerMinute;
+    private final long seed;
+    private final int lowestFloor;
+    private final int highestFloor;
+    
+    /**
+     * Receiver of the riders generated by scheduleArrivals
+     */
+    interface ArrivalHandler {
+        /**
+         * A rider arrives, at the given intended time of the building clock
+         */
+        void arrive(int sourceFloor, int destinationFloor, long arrivalTime);
+    }
+    
+    /**
+     * Constructor for TrafficGenerator
+     * @param system the building receiving the riders (its lowest floor is the lobby)
+     * @param pattern where riders come from and go to
+     * @param arrivalsPerMinute the mean number of riders arriving per minute
+     * @param seed the seed of the random arrivals
+     */
+    public TrafficGenerator(SystemController system, TrafficPattern pattern, double arrivalsPerMinute,
+                            long seed) {
+        if (arrivalsPerMinute <= 0) {
+            throw new IllegalArgumentException("Arrival rate must be positive: " + arrivalsPerMinute);
+        }
+        if (system.getHighestFloor() <= system.getLowestFloor()) {
+            throw new IllegalArgumentException("A scenario needs at least two floors");
+        }
+        this.system = system;
+        this.lowestFloor = system.getLowestFloor();
+        this.highestFloor = system.getHighestFloor();
+        this.pattern = pattern;
+        this.arrivalsPerMinute = arrivalsPerMinute;
+        this.seed = seed;
+    }
+    
+    /**
+     * Run the scenario: riders arrive for durationMillis, then the building has
+     * drainMillis more to serve them. In virtual time the simulation is run by
+     * this call; in real time the call waits for the riders.
+     * @return the report of the riders who arrived during the scenario
+     */
+    public TrafficReport run(long durationMillis, long drainMillis) throws InterruptedException {
+        LatencyHistogram waitTime = new LatencyHistogram();
+        LatencyHistogram tripTime = new LatencyHistogram();
+        AtomicLong completed = new AtomicLong();
+        List<CompletableFuture<RideResult>> rides = new ArrayList<>();
+        
+        EventScheduler scheduler = system.getScheduler();
+        long end = scheduler.now() + durationMillis;
+        scheduleArrivals(durationMillis, (sourceFloor, destinationFloor, arrivalTime) -> {
+            CompletableFuture<RideResult> ride = system.requestRide(sourceFloor, destinationFloor)
+                                                       .toCompletableFuture();
+            synchronized (rides) {
+                rides.add(ride);
+            }
+            ride.thenAccept(result -> {
+                waitTime.record(result.getBoardingTime() - arrivalTime);
+                tripTime.record(result.getExitTime() - arrivalTime);
+                completed.incrementAndGet();
+            });
+        });
+        
+        if (scheduler.getClock().isVirtual()) {
+            system.runFor(durationMillis + drainMillis);
+        } else {
+            awaitRides(rides, end, end + drainMillis);
+        }
+        
+        int generated;
+        synchronized (rides) {
+            generated = rides.size();
+        }
+        return new TrafficReport(pattern, durationMillis, arrivalsPerMinute, generated, completed.get(),
+                                 waitTime, tripTime);
+    }
+    
+    /**
+     * Schedule the arrivals of the next durationMillis on the building scheduler,
+     * without running it. Each arrival schedules the next one at its intended time.
+     */
+    void scheduleArrivals(long durationMillis, ArrivalHandler handler) {
+        EventScheduler scheduler = system.getScheduler();
+        long start = scheduler.now();
+        long end = start + durationMillis;
+        SplittableRandom random = new SplittableRandom(seed);
+        
+        Runnable[] arrival = new Runnable[1];
+        long[] intended = {start + nextGap(random)};
+        arrival[0] = () -> {
+            long arrivalTime = intended[0];
+            int[] trip = pattern.nextTrip(random, lowestFloor, highestFloor);
+            handler.arrive(trip[0], trip[1], arrivalTime);
+            
+            intended[0] = arrivalTime + nextGap(random);
+            if (intended[0] < end) {
+                scheduler.schedule(intended[0] - scheduler.now(), arrival[0]);
+            }
+        };
+        if (intended[0] < end) {
+            scheduler.schedule(intended[0] - start, arrival[0]);
+        }
+    }
+    
+    /**
+     * Draw the time to the next arrival of the Poisson process
+     */
+    private long nextGap(SplittableRandom random) {
+        double meanGap = 60_000.0 / arrivalsPerMinute;
+        return Math.round(-meanGap * Math.log(1.0 - random.nextDouble()));
+    }
+    
+    /**
+     * Wait in real time until the last arrival, then for the riders to be served,
+     * until the given time of the building clock
+     */
+    private void awaitRides(List<CompletableFuture<RideResult>> rides, long arrivalsEnd, long deadline)
+            throws InterruptedException {
+        EventScheduler scheduler = system.getScheduler();
+        Thread.sleep(Math.max(0, arrivalsEnd - scheduler.now()));
+        CompletableFuture<?>[] pending;
+        synchronized (rides) {
+            pending = rides.toArray(new CompletableFuture<?>[0]);
+        }
+        try {
+            CompletableFuture.allOf(pending).get(Math.max(0, deadline - scheduler.now()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Riders not served in time are reported as not completed
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.elevatorcontroller;
+
+import java.util.SplittableRandom;
+
+/**
+ * TrafficPattern enum describing where riders of a traffic scenario come from
+ * and where they go. The lobby is the lowest floor of the building.
+ * 
+ * - UP_PEAK: morning arrivals, most riders go from the lobby to an upper floor
+ * - DOWN_PEAK: evening departures, most riders go from an upper floor to the lobby
+ * - LUNCH: as many riders leave for the lobby as come back from it
+ * - INTER_FLOOR: riders travel between random floors
+ */
+public enum TrafficPattern {
+    UP_PEAK(0.9, 0.0),
+    DOWN_PEAK(0.0, 0.9),
+    LUNCH(0.45, 0.45),
+    INTER_FLOOR(0.0, 0.0);
+    
+    private final double fromLobby;
+    private final double toLobby;
+    
+    TrafficPattern(double fromLobby, double toLobby) {
+        this.fromLobby = fromLobby;
+        this.toLobby = toLobby;
+    }
+    
+    /**
+     * Draw the source and destination floors of the next rider
+     * @return {source, destination}, always two different floors
+     */
+    int[] nextTrip(SplittableRandom random, int lowestFloor, int highestFloor) {
+        int floors = highestFloor - lowestFloor + 1;
+        double draw = random.nextDouble();
+        if (draw < fromLobby) {
+            return new int[] {lowestFloor, lowestFloor + 1 + random.nextInt(floors - 1)};
+        } else if (draw < fromLobby + toLobby) {
+            return new int[] {lowestFloor + 1 + random.nextInt(floors - 1), lowestFloor};
+        }
+        int source = random.nextInt(floors);
+        int destination = (source + 1 + random.nextInt(floors - 1)) % floors;
+        return new int[] {lowestFloor + source, lowestFloor + destination};
+    }
+}
@@ -0,0 +1,78 @@
+package com.elevatorcontroller;
+
+/**
+ * TrafficReport class summarizing a traffic scenario run by TrafficGenerator.
+ * Latencies are measured from the intended arrival time of each rider, so a
+ * late generator or scheduler does not hide queueing (coordinated omission).
+ * 
+ * Variables:
+ * - pattern, durationMillis, arrivalsPerMinute: the scenario
+ * - generated: riders who arrived during the scenario
+ * - completed: riders who reached their destination before the end of the run
+ * - waitTime: intended arrival to boarding
+ * - tripTime: intended arrival to exit
+ */
+public final class TrafficReport {
+    
+    private final TrafficPattern pattern;
+    private final long durationMillis;
+    private final double arrivalsPerMinute;
+    private final long generated;
+    private final long completed;
+    private final LatencyHistogram waitTime;
+    private final LatencyHistogram tripTime;
+    
+    TrafficReport(TrafficPattern pattern, long durationMillis, double arrivalsPerMinute, long generated,
+                  long completed, LatencyHistogram waitTime, LatencyHistogram tripTime) {
+        this.pattern = pattern;
+        this.durationMillis = durationMillis;
+        this.arrivalsPerMinute = arrivalsPerMinute;
+        this.generated = generated;
+        this.completed = completed;
+        this.waitTime = waitTime;
+        this.tripTime = tripTime;
+    }
+    
+    /**
+     * Get the number of riders served per minute of scenario
+     */
+    public double getThroughputPerMinute() {
+        return durationMillis <= 0 ? 0.0 : completed * 60_000.0 / durationMillis;
+    }
+    
+    // Getters
+    public TrafficPattern getPattern() {
+        return pattern;
+    }
+    
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+    
+    public double getArrivalsPerMinute() {
+        return arrivalsPerMinute;
+    }
+    
+    public long getGenerated() {
+        return generated;
+    }
+    
+    public long getCompleted() {
+        return completed;
+    }
+    
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+    
+    public LatencyHistogram getTripTime() {
+        return tripTime;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %d/%d riders served (%.1f/min for %.1f/min offered)%n  wait: %s%n  trip: %s",
+                             pattern, completed, generated, getThroughputPerMinute(), arrivalsPerMinute,
+                             waitTime, tripTime);
+    }
+}
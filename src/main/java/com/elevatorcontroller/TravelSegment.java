@@ -0,0 +1,148 @@
+package com.elevatorcontroller;
+
+/**
+ * TravelSegment class describing the motion of a car from one floor to the floor where it stops.
+ * Distances are in floors and times in milliseconds.
+ *
+ * Variables:
+ * - originFloor, targetFloor: the floors where the segment starts and ends
+ * - initialSpeed: the speed at the origin (0 when starting from a stop)
+ * - startTime: the time of the building clock when the segment starts
+ *
+ * Behavior:
+ * - The car accelerates up to its full speed (one floor per movement time),
+ *   cruises, then brakes to stop at the target; on short segments it brakes
+ *   before reaching full speed
+ * - Acceleration and braking take the acceleration time from rest to full speed;
+ *   with an acceleration time of 0 the car moves at full speed and can stop at
+ *   any floor, one floor per movement time
+ */
+final class TravelSegment {
+
+    private final int originFloor;
+    private final int targetFloor;
+    private final int distance;
+    private final long startTime;
+
+    // Profile; acceleration is 0 for a car moving at constant speed
+    private final double acceleration;
+    private final double initialSpeed;
+    private final double peakSpeed;
+    private final long movementTime;
+    private final double accelerationDistance;
+    private final double cruiseDistance;
+    private final double accelerationDuration;
+    private final double cruiseDuration;
+    private final double duration;
+
+    /**
+     * Plan a segment
+     * @param originFloor the floor where the car is
+     * @param targetFloor the floor where the car stops
+     * @param initialSpeed the speed of the car at the origin, in floors per millisecond
+     * @param startTime the time of the building clock at the origin
+     * @param timings the movement and acceleration times of the car
+     */
+    TravelSegment(int originFloor, int targetFloor, double initialSpeed, long startTime, Timings timings) {
+        this.originFloor = originFloor;
+        this.targetFloor = targetFloor;
+        this.distance = Math.abs(targetFloor - originFloor);
+        this.startTime = startTime;
+        this.movementTime = timings.getMovementTime();
+
+        if (movementTime == 0 || timings.getAccelerationTime() == 0) {
+            this.acceleration = 0;
+            this.initialSpeed = 0;
+            this.peakSpeed = 0;
+            this.accelerationDistance = 0;
+            this.cruiseDistance = distance;
+            this.accelerationDuration = 0;
+            this.cruiseDuration = (double) distance * movementTime;
+            this.duration = cruiseDuration;
+            return;
+        }
+
+        double maxSpeed = 1.0 / movementTime;
+        this.acceleration = maxSpeed / timings.getAccelerationTime();
+        this.initialSpeed = Math.min(initialSpeed, Math.sqrt(2 * acceleration * distance));
+        // Full speed, or the speed where braking must start on a short segment
+        this.peakSpeed = Math.min(maxSpeed,
+            Math.sqrt((2 * acceleration * distance + this.initialSpeed * this.initialSpeed) / 2));
+        this.accelerationDistance = (peakSpeed * peakSpeed - this.initialSpeed * this.initialSpeed)
+                                    / (2 * acceleration);
+        double brakingDistance = peakSpeed * peakSpeed / (2 * acceleration);
+        this.cruiseDistance = Math.max(0, distance - accelerationDistance - brakingDistance);
+        this.accelerationDuration = (peakSpeed - this.initialSpeed) / acceleration;
+        this.cruiseDuration = cruiseDistance / peakSpeed;
+        this.duration = accelerationDuration + cruiseDuration + peakSpeed / acceleration;
+    }
+
+    int getOriginFloor() {
+        return originFloor;
+    }
+
+    int getTargetFloor() {
+        return targetFloor;
+    }
+
+    /**
+     * Get the direction of travel, +1 going up and -1 going down
+     */
+    int getStep() {
+        return targetFloor >= originFloor ? 1 : -1;
+    }
+
+    /**
+     * Get the time of the building clock when the car reaches a floor of the segment
+     */
+    long timeAt(int floor) {
+        return startTime + Math.round(elapsedAt(Math.abs(floor - originFloor)));
+    }
+
+    /**
+     * Get the speed of the car when it reaches a floor of the segment, in floors per millisecond
+     */
+    double speedAt(int floor) {
+        double x = Math.abs(floor - originFloor);
+        if (acceleration == 0) {
+            return x < distance ? 1.0 / Math.max(1, movementTime) : 0;
+        }
+        if (x <= accelerationDistance) {
+            return Math.sqrt(initialSpeed * initialSpeed + 2 * acceleration * x);
+        }
+        if (x <= accelerationDistance + cruiseDistance) {
+            return peakSpeed;
+        }
+        return Math.sqrt(Math.max(0, 2 * acceleration * (distance - x)));
+    }
+
+    /**
+     * Get the number of whole floors the car needs to stop when it reaches a floor
+     * of the segment (0 when it can stop at that floor)
+     */
+    int stoppingFloorsAt(int floor) {
+        if (acceleration == 0) {
+            return 0;
+        }
+        double speed = speedAt(floor);
+        // Tolerate rounding errors so a planned stop stays reachable
+        return (int) Math.ceil(speed * speed / (2 * acceleration) - 1e-9);
+    }
+
+    /**
+     * Get the time from the origin to a distance along the segment
+     */
+    private double elapsedAt(double x) {
+        if (acceleration == 0) {
+            return x * movementTime;
+        }
+        if (x <= accelerationDistance) {
+            return (Math.sqrt(initialSpeed * initialSpeed + 2 * acceleration * x) - initialSpeed) / acceleration;
+        }
+        if (x <= accelerationDistance + cruiseDistance) {
+            return accelerationDuration + (x - accelerationDistance) / peakSpeed;
+        }
+        // Braking: time left to stop from the remaining distance
+        return duration - Math.sqrt(2 * Math.max(0, distance - x) / acceleration);
+    }
+}
@@ -1,5 +1,6 @@
 package com.elevatorcontroller;
 
+import java.util.SplittableRandom;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.Condition;
 
@@ -14,7 +15,9 @@ import java.util.concurrent.locks.Condition;
  * Behavior:
  * - If a call was reported to the same floor in the opposite direction: wait
  * - Otherwise, call the elevator
- * - Wait for the door to open
+ * - Wait for the door to open with the elevator going the user's way (or idle)
+ *   and room aboard; when the elevator is full, let it leave and call again
+ *   (the dispatcher may then pick another car)
  * - Decide whether or not to enter (the user may be distracted)
  * - If the door is still open, enter the elevator
  * - Enter the destination
@@ -29,8 +32,18 @@ public class User implements Runnable {
     private final int destinationFloor;
     private final Elevator.Direction direction;
     private final SystemController system;
-    private final Door startDoor;
-    private final Door destinationDoor;
+    private final String actor;
+    private final SplittableRandom random;
+    
+    // Car assigned to the call and its doors, known once the elevator has been called
+    private volatile int car = 0;
+    private volatile Door startDoor;
+    private volatile Door destinationDoor;
+    
+    // Timestamps for the metrics (building clock)
+    private volatile long callTime;
+    private volatile long entryTime;
+    private volatile long entryStopCount;
     
     private volatile boolean hasEnteredElevator = false;
     private volatile boolean hasReachedDestination = false;
@@ -38,9 +51,6 @@ public class User implements Runnable {
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition stateChanged = lock.newCondition();
     
-    // Probability of user entering the elevator (0.0 to 1.0)
-    private static final double ENTER_PROBABILITY = 0.9;
-    
     /**
      * Constructor for User
      * @param userId unique identifier for the user
@@ -56,8 +66,8 @@ public class User implements Runnable {
         this.destinationFloor = destinationFloor;
         this.direction = direction;
         this.system = system;
-        this.startDoor = system.getDoor(startFloor);
-        this.destinationDoor = system.getDoor(destinationFloor);
+        this.actor = "Usager[" + userId + "]";
+        this.random = system.newRiderRandom(userId);
     }
     
     @Override
@@ -74,16 +84,34 @@ public class User implements Runnable {
      */
     private void userBehavior() throws InterruptedException {
         // Step 1: Call the elevator
-        System.out.println("# Usager[" + userId + "]: # effective l'appel " + startFloor + "-" +
-                   (direction == Elevator.Direction.UP ? "UP" : "DOWN"));
+        callElevator();
         
-        // Step 2: Wait for the door to open at start floor
-        startDoor.waitForDoorOpen();
+        // Step 2: Wait for the door to open at start floor, with the elevator going our way
+        // and room for us
+        while (true) {
+            Elevator elevator = system.getElevator(car);
+            startDoor.waitForDoorOpen();
+            Elevator.Direction served = elevator.getDirection();
+            if (served == Elevator.Direction.NONE || served == direction) {
+                if (elevator.tryBoard()) {
+                    break;
+                }
+                // The elevator is full: let it leave and call it again
+                system.getEventLog().log('#', actor, "ascenseur complet");
+                startDoor.waitForDoorClosed();
+                recallElevator();
+                continue;
+            }
+            // The elevator serves the other direction: let it leave, our call stays pending
+            startDoor.waitForDoorClosed();
+        }
+        doorOpenedForUser();
+        
+        Elevator elevator = system.getElevator(car);
         
         // Step 3: Decide whether to enter (with probability)
-        boolean willEnter = Math.random() < ENTER_PROBABILITY;
-        if (!willEnter) {
-            System.out.println("# Usager[" + userId + "]: # declined to enter");
+        if (!decideToEnter()) {
+            elevator.alight(1);
             return;
         }
         
@@ -91,7 +119,8 @@ public class User implements Runnable {
         if (startDoor.isOpen()) {
             enterElevator();
         } else {
-            System.out.println("# Usager[" + userId + "]: # door closed before entering");
+            system.getEventLog().log('#', actor, "door closed before entering");
+            elevator.alight(1);
             return;
         }
         
@@ -102,7 +131,7 @@ public class User implements Runnable {
         startDoor.waitForDoorClosed();
         
         // Step 7: Wait until the elevator reaches the destination
-        system.getElevator().waitForFloor(destinationFloor);
+        system.getElevator(car).waitForFloor(destinationFloor);
         
         // Step 8: Destination reached
         reachedDestination();
@@ -112,6 +141,87 @@ public class User implements Runnable {
         
         // Step 10: Exit the elevator
         exitElevator();
+        elevator.alight(1);
+    }
+    
+    /**
+     * Event-driven counterpart of step 1, used in virtual-time mode
+     */
+    void onArrival() {
+        callElevator();
+    }
+    
+    /**
+     * Event-driven counterpart of steps 3 to 5, used in virtual-time mode
+     * @return true if the user entered the elevator
+     */
+    boolean onStartDoorOpened() {
+        doorOpenedForUser();
+        if (!decideToEnter()) {
+            return false;
+        }
+        enterElevator();
+        enterDestination();
+        return true;
+    }
+    
+    /**
+     * Event-driven counterpart of steps 7 and 8, used in virtual-time mode
+     */
+    void onDestinationReached() {
+        reachedDestination();
+    }
+    
+    /**
+     * Event-driven counterpart of steps 9 and 10, used in virtual-time mode
+     */
+    void onDestinationDoorOpened() {
+        exitElevator();
+    }
+    
+    /**
+     * User calls the elevator from the start floor
+     */
+    private void callElevator() {
+        system.getEventLog().log('#', actor, "effective l'appel ",
+                   startFloor + "-" + (direction == Elevator.Direction.UP ? "UP" : "DOWN"));
+        callTime = system.getScheduler().now();
+        assignCar();
+    }
+    
+    /**
+     * Call the elevator again after a full car left the user behind. The call goes
+     * through the dispatcher, which may pick another car; the wait keeps running.
+     * @return the car assigned to the new call
+     */
+    int recallElevator() {
+        assignCar();
+        return car;
+    }
+    
+    private void assignCar() {
+        car = Math.max(0, system.callElevator(startFloor, direction));
+        startDoor = system.getDoor(car, startFloor);
+        destinationDoor = system.getDoor(car, destinationFloor);
+    }
+    
+    /**
+     * Record the wait from the call to the door opening for the user
+     */
+    private void doorOpenedForUser() {
+        system.getMetrics().recordWait(system.getScheduler().now() - callTime);
+    }
+    
+    /**
+     * Decide whether to enter the elevator (the user may be distracted),
+     * drawing from the user's own stream of the run seed
+     */
+    private boolean decideToEnter() {
+        boolean willEnter = random.nextDouble() < system.getEnterProbability();
+        if (!willEnter) {
+            system.getEventLog().log('#', actor, "declined to enter");
+        }
+        return willEnter;
     }
     
     /**
@@ -121,7 +231,9 @@ public class User implements Runnable {
         lock.lock();
         try {
             hasEnteredElevator = true;
-            System.out.println("# Usager[" + userId + "]: # entre ds l'ascenseur");
+            entryTime = system.getScheduler().now();
+            entryStopCount = system.getMetrics().getStops(car);
+            system.getEventLog().log('#', actor, "entre ds l'ascenseur");
             stateChanged.signalAll();
         } finally {
             lock.unlock();
@@ -132,8 +244,8 @@ public class User implements Runnable {
      * User enters the destination floor
      */
     private void enterDestination() {
-        system.getElevator().addDestination(destinationFloor);
-        System.out.println("# Usager[" + userId + "]: # entre la destination " + destinationFloor);
+        system.getElevator(car).addDestination(destinationFloor);
+        system.getEventLog().log('#', actor, "entre la destination ", destinationFloor);
     }
     
     /**
@@ -143,7 +255,7 @@ public class User implements Runnable {
         lock.lock();
         try {
             hasReachedDestination = true;
-            System.out.println("# Usager[" + userId + "]: # destination atteinte");
+            system.getEventLog().log('#', actor, "destination atteinte");
             stateChanged.signalAll();
         } finally {
             lock.unlock();
@@ -154,7 +266,9 @@ public class User implements Runnable {
      * User exits the elevator
      */
     private void exitElevator() {
-        System.out.println("# Usager[" + userId + "]: # sortie de l'ascenseur");
+        system.getMetrics().recordRide(system.getScheduler().now() - entryTime,
+                                       system.getMetrics().getStops(car) - entryStopCount);
+        system.getEventLog().log('#', actor, "sortie de l'ascenseur");
     }
     
     /**
@@ -212,6 +326,13 @@ public class User implements Runnable {
         return direction;
     }
     
+    /**
+     * Get the car assigned to the user's call
+     */
+    public int getCar() {
+        return car;
+    }
+    
     public int getExpectedDistance() {
         return Math.abs(destinationFloor - startFloor);
     }
@@ -0,0 +1,48 @@
+package com.elevatorcontroller;
+
+import java.util.concurrent.locks.Condition;
+
+/**
+ * Simulated implementation of Clock.
+ * Time only moves when the scheduler advances it, so hours of traffic
+ * can be simulated in milliseconds of wall-clock time.
+ */
+public class VirtualClock implements Clock {
+    
+    private volatile long now;
+    
+    /**
+     * Constructor for VirtualClock starting at time 0
+     */
+    public VirtualClock() {
+        this(0);
+    }
+    
+    /**
+     * Constructor for VirtualClock
+     * @param startTime the initial simulated time in milliseconds
+     */
+    public VirtualClock(long startTime) {
+        this.now = startTime;
+    }
+    
+    @Override
+    public long now() {
+        return now;
+    }
+    
+    /**
+     * Jump directly to the deadline instead of waiting
+     */
+    @Override
+    public void awaitUntil(long deadline, Condition condition) {
+        if (deadline > now) {
+            now = deadline;
+        }
+    }
+    
+    @Override
+    public boolean isVirtual() {
+        return true;
+    }
+}
@@ -0,0 +1,134 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Unit tests for the AsyncEventLog class.
+ * Tests the logging pipeline including:
+ * - Line formatting in the trace format
+ * - Feeding the execution trace
+ * - Drop policy when the queue is full
+ * - Failing writes
+ */
+@DisplayName("Async Event Log Tests")
+class AsyncEventLogTest {
+    
+    @Test
+    @DisplayName("Events are written in the trace format")
+    void testFormatting() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncEventLog log = new AsyncEventLog(new PrintStream(bytes, true), null, new VirtualClock(),
+                                              16, AsyncEventLog.OverflowPolicy.BLOCK);
+        log.log('+', "Ascenseur", "direction: ", Elevator.Direction.UP);
+        log.log('*', "Porte[1]", "ouverture");
+        log.close();
+        
+        assertEquals("+ Ascenseur: + direction: UP\n* Porte[1]: * ouverture\n", bytes.toString(),
+                     "Lines should follow the trace format");
+    }
+    
+    @Test
+    @DisplayName("Events feed the execution trace with their own timestamps")
+    void testFeedsExecutionTrace() throws InterruptedException {
+        VirtualClock clock = new VirtualClock(1000);
+        ExecutionTrace trace = new ExecutionTrace(clock);
+        AsyncEventLog log = new AsyncEventLog(null, trace, clock, 16, AsyncEventLog.OverflowPolicy.BLOCK);
+        log.log('+', "Ascenseur", "Etage: ", 2);
+        log.flush();
+        
+        assertEquals(1, trace.getEventCount(), "Event should reach the trace");
+        ExecutionTrace.TraceEvent event = trace.getEvents().get(0);
+        assertEquals("Etage: 2", event.action, "Detail should be appended to the action");
+        assertEquals(1000, event.timestamp, "Timestamp should be taken when logging");
+        log.close();
+    }
+    
+    @Test
+    @DisplayName("Drop policy discards events when the queue is full")
+    void testDropPolicy() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        OutputStream blocked = new OutputStream() {
+            @Override
+            public void write(int b) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AsyncEventLog log = new AsyncEventLog(new PrintStream(blocked), null, new VirtualClock(),
+                                              2, AsyncEventLog.OverflowPolicy.DROP);
+        log.log('+', "Ascenseur", "first");
+        writing.await();
+        
+        // The writer is stuck on the first batch: two events fit in the queue, the rest is dropped
+        for (int i = 0; i < 5; i++) {
+            log.log('+', "Ascenseur", "next");
+        }
+        assertEquals(3, log.getDroppedCount(), "Events beyond the capacity should be dropped");
+        release.countDown();
+        log.close();
+    }
+    
+    @Test
+    @DisplayName("A failing batch is counted and the writer keeps going")
+    void testFailingBatch() throws InterruptedException {
+        boolean[] fail = {true};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream failing = new PrintStream(bytes, true) {
+            @Override
+            public void print(Object obj) {
+                if (fail[0]) {
+                    throw new IllegalStateException("Trace file full");
+                }
+                super.print(obj);
+            }
+        };
+        AsyncEventLog log = new AsyncEventLog(failing, null, new VirtualClock(), 2,
+                                              AsyncEventLog.OverflowPolicy.BLOCK);
+        for (int i = 0; i < 10; i++) {
+            log.log('+', "Ascenseur", "lost");
+        }
+        log.flush();
+        assertTrue(log.getFailedBatchCount() > 0, "Failed batches should be counted");
+        
+        fail[0] = false;
+        log.log('+', "Ascenseur", "kept");
+        log.close();
+        assertEquals("+ Ascenseur: + kept\n", bytes.toString(), "Writer should survive a failing batch");
+    }
+    
+    @Test
+    @DisplayName("Callers drop events instead of blocking once the writer is gone")
+    void testWriterGone() throws InterruptedException {
+        PrintStream fatal = new PrintStream(new ByteArrayOutputStream()) {
+            @Override
+            public void print(Object obj) {
+                throw new AssertionError("Writer thread killed");
+            }
+        };
+        AsyncEventLog log = new AsyncEventLog(fatal, null, new VirtualClock(), 2,
+                                              AsyncEventLog.OverflowPolicy.BLOCK);
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> { });
+        try {
+            for (int i = 0; i < 10; i++) {
+                log.log('+', "Ascenseur", "dropped");
+            }
+            log.close();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+        // At most three events reach the writer before it dies and two more fill the queue
+        assertTrue(log.getDroppedCount() >= 5, "Events beyond the queue should be dropped");
+    }
+}
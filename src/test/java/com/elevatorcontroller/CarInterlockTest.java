@@ -0,0 +1,55 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CarInterlock class.
+ * Tests the car safety invariants including:
+ * - No door in use while the car is moving
+ * - At most one door in use at a time
+ */
+@DisplayName("Car Interlock Tests")
+class CarInterlockTest {
+    
+    private CarInterlock interlock;
+    
+    @BeforeEach
+    void setUp() {
+        interlock = new CarInterlock(-2); // Floors from -2 (basements)
+    }
+    
+    @Test
+    @DisplayName("A stopped car uses and releases one door")
+    void testUseAndReleaseDoor() {
+        assertEquals(CarInterlock.NO_DOOR, interlock.getDoorFloor(), "No door should be in use initially");
+        interlock.useDoor(-2);
+        assertEquals(-2, interlock.getDoorFloor(), "Door of the lowest floor should be in use");
+        interlock.releaseDoor(-2);
+        assertEquals(CarInterlock.NO_DOOR, interlock.getDoorFloor(), "Door should be released");
+    }
+    
+    @Test
+    @DisplayName("A moving car cannot use a door")
+    void testNoDoorWhileMoving() {
+        interlock.startMoving();
+        assertTrue(interlock.isMoving(), "Car should be moving");
+        assertThrows(IllegalStateException.class, () -> interlock.useDoor(3), "Door should be refused");
+        
+        interlock.stop();
+        interlock.useDoor(3);
+        assertThrows(IllegalStateException.class, interlock::startMoving, "Car should not move with a door in use");
+        assertFalse(interlock.isMoving(), "Refused move should leave the car stopped");
+    }
+    
+    @Test
+    @DisplayName("Only one door can be in use at a time")
+    void testSingleDoor() {
+        interlock.useDoor(1);
+        assertThrows(IllegalStateException.class, () -> interlock.useDoor(2), "Second door should be refused");
+        assertThrows(IllegalStateException.class, () -> interlock.releaseDoor(2), "Wrong door cannot be released");
+        assertEquals(1, interlock.getDoorFloor(), "First door should stay in use");
+    }
+}
@@ -127,4 +127,89 @@ class DoorTest {
         doorOperator.join(3000);
         assertFalse(doorOperator.isAlive(), "Door operation should complete");
     }
+    
+    @Test
+    @DisplayName("Scheduled door goes through every state without blocking readers")
+    void testScheduledStateMachine() throws InterruptedException {
+        EventScheduler scheduler = new EventScheduler(new VirtualClock());
+        door.setEventLog(EventLog.silent());
+        boolean[] closed = new boolean[1];
+        
+        door.scheduleOpen(scheduler, () -> door.scheduleClose(scheduler, () -> closed[0] = true));
+        assertEquals(Door.State.OPENING, door.getState(), "Door should be opening");
+        
+        scheduler.runFor(Door.DOOR_OPENING_TIME);
+        assertEquals(Door.State.OPEN, door.getState(), "Door should be open");
+        
+        scheduler.runFor(Door.DOOR_CLOSING_TIME);
+        assertEquals(Door.State.CLOSING, door.getState(), "Door should be closing");
+        assertTrue(door.isClosing(), "isClosing should match the state");
+        
+        scheduler.runFor(Door.DOOR_EXIT_TIME);
+        assertEquals(Door.State.CLOSED, door.getState(), "Door should be closed");
+        assertTrue(closed[0], "Action should run once the door is closed");
+    }
+    
+    @Test
+    @DisplayName("Invalid transitions are rejected")
+    void testInvalidTransition() {
+        door.setEventLog(EventLog.silent());
+        assertThrows(IllegalStateException.class, door::beginClosing, "A closed door cannot start closing");
+        assertEquals(Door.State.CLOSED, door.getState(), "Rejected transition should not change the state");
+    }
+    
+    @Test
+    @DisplayName("Concurrent closes wait for the closing in progress")
+    void testConcurrentClose() throws InterruptedException {
+        door.setEventLog(EventLog.silent());
+        door.openDoor();
+        Throwable[] failures = new Throwable[2];
+        Thread first = startDoorThread(door::closeDoor, failures, 0);
+        Thread second = startDoorThread(door::closeDoor, failures, 1);
+        first.join(3000);
+        second.join(3000);
+        
+        assertNull(failures[0], "First close should not fail");
+        assertNull(failures[1], "Second close should not fail");
+        assertEquals(Door.State.CLOSED, door.getState(), "Door should be closed");
+    }
+    
+    @Test
+    @DisplayName("Opening a closing door waits until it is closed")
+    void testOpenWhileClosing() throws InterruptedException {
+        door.setEventLog(EventLog.silent());
+        door.openDoor();
+        Throwable[] failures = new Throwable[2];
+        Thread closer = startDoorThread(door::closeDoor, failures, 0);
+        while (door.getState() != Door.State.CLOSING && closer.isAlive()) {
+            Thread.sleep(1);
+        }
+        assertEquals(Door.State.CLOSING, door.getState(), "Door should be closing");
+        
+        Thread opener = startDoorThread(door::openDoor, failures, 1);
+        closer.join(3000);
+        opener.join(3000);
+        
+        assertNull(failures[0], "Close should not fail");
+        assertNull(failures[1], "Open during the closing should not fail");
+        assertEquals(Door.State.OPEN, door.getState(), "Door should be open again once closed");
+    }
+    
+    private interface DoorAction {
+        void run() throws InterruptedException;
+    }
+    
+    private Thread startDoorThread(DoorAction action, Throwable[] failures, int index) {
+        Thread thread = new Thread(() -> {
+            try {
+                action.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                failures[index] = e;
+            }
+        });
+        thread.start();
+        return thread;
+    }
 }
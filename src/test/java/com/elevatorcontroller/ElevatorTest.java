@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for the Elevator class.
@@ -101,6 +103,70 @@ class ElevatorTest {
                     "All calls and destinations at current floor should be cleared");
     }
     
+    @Test
+    @DisplayName("Waiting for an empty elevator wakes up when requests are cleared")
+    void testWaitUntilEmptyOnClear() throws InterruptedException {
+        elevator.addCall(0);
+        assertFalse(elevator.waitUntilEmpty(10, TimeUnit.MILLISECONDS), "Call is still pending");
+        
+        Thread waiter = new Thread(() -> {
+            try {
+                elevator.waitUntilEmpty();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        elevator.clearCallsAndDestinationsAtCurrentFloor();
+        waiter.join(1000);
+        assertFalse(waiter.isAlive(), "Clearing the last call should wake the waiter up");
+        assertTrue(elevator.waitUntilEmpty(0, TimeUnit.MILLISECONDS), "Elevator should be empty");
+    }
+    
+    @Test
+    @DisplayName("A full car only stops for destinations")
+    void testCapacity() {
+        Elevator car = new Elevator(0, 9);
+        car.setCapacity(3);
+        assertEquals(2, car.board(2), "Two riders fit");
+        assertEquals(1, car.board(5), "Only one more rider fits");
+        assertFalse(car.tryBoard(), "Car should be full");
+        assertEquals(3, car.getLoad(), "Load should not exceed the capacity");
+        
+        car.setDirection(Elevator.Direction.UP);
+        car.addCall(1, Elevator.Direction.UP);
+        car.addDestination(4);
+        car.moveOneFloor();
+        assertFalse(car.shouldStopAtCurrentFloor(), "Full car should pass the hall call by");
+        assertEquals(4, car.nextStopFrom(1), "Next stop should be the destination");
+        
+        car.alight(1);
+        assertTrue(car.shouldStopAtCurrentFloor(), "Car with room should stop for the call");
+        assertThrows(IllegalArgumentException.class, () -> car.setCapacity(0));
+    }
+    
+    @Test
+    @DisplayName("A full car heads for its destinations before hall calls")
+    void testFullCarHeadsForDestinations() {
+        Elevator car = new Elevator(0, 9);
+        car.setCapacity(2);
+        car.setDirection(Elevator.Direction.UP);
+        for (int i = 0; i < 5; i++) {
+            car.moveOneFloor();
+        }
+        car.board(2);
+        car.addDestination(2);
+        car.addCall(8, Elevator.Direction.DOWN);
+    
+        assertEquals(Elevator.Direction.DOWN, car.chooseDirection(), "Full car should head down to its riders' floor");
+        assertEquals(2, car.nextStopFrom(4), "Next stop should be the destination");
+    
+        car.alight(1);
+        car.setDirection(Elevator.Direction.UP);
+        assertEquals(8, car.nextStopFrom(5), "Car with room should stop for the hall call ahead");
+    }
+    
     @Test
     @DisplayName("Moving UP increases floor")
     void testMoveUp() {
@@ -181,4 +247,192 @@ class ElevatorTest {
         assertEquals(Elevator.Direction.NONE, elevator.getDirection(), 
                      "Stop should set direction to NONE");
     }
+    
+    @Test
+    @DisplayName("Next request above and below the current floor")
+    void testNextRequestAboveAndBelow() {
+        elevator.addCall(2);
+        assertEquals(2, elevator.nextRequestAbove(0), "Call at floor 2 is the next request above 0");
+        assertEquals(Elevator.NO_REQUEST, elevator.nextRequestAbove(2), "Nothing above the top call");
+        assertEquals(2, elevator.nextRequestBelow(3), "Call at floor 2 is the next request below 3");
+        assertEquals(Elevator.NO_REQUEST, elevator.nextRequestBelow(2), "Nothing below floor 2");
+    }
+    
+    @Test
+    @DisplayName("Next request lookup spans a tall building with a basement")
+    void testNextRequestInTallBuilding() {
+        Elevator tall = new Elevator(-5, 200);
+        tall.addCall(-3);
+        tall.addCall(130);
+        tall.setDirection(Elevator.Direction.UP);
+        tall.addDestination(64);
+        
+        assertEquals(64, tall.nextRequestAbove(-3), "Destination 64 is the nearest above -3");
+        assertEquals(130, tall.nextRequestAbove(64), "Call 130 is the nearest above 64");
+        assertEquals(Elevator.NO_REQUEST, tall.nextRequestAbove(130), "Nothing above 130");
+        assertEquals(64, tall.nextRequestBelow(129), "Destination 64 is the nearest below 129");
+        assertEquals(-3, tall.nextRequestBelow(63), "Call -3 is the nearest below 63");
+        assertEquals(Elevator.NO_REQUEST, tall.nextRequestBelow(-3), "Nothing below -3");
+    }
+    
+    @Test
+    @DisplayName("Next stop skips opposite hall calls with requests beyond")
+    void testNextStopFrom() {
+        Elevator tall = new Elevator(0, 20);
+        tall.addCall(5, Elevator.Direction.DOWN);
+        tall.addCall(12, Elevator.Direction.UP);
+        tall.addDestination(17);
+        
+        assertEquals(Elevator.NO_REQUEST, tall.nextStopFrom(1), "An idle elevator has no next stop");
+        tall.setDirection(Elevator.Direction.UP);
+        assertEquals(12, tall.nextStopFrom(1), "Down call 5 is served on the way back");
+        assertEquals(12, tall.nextStopFrom(12), "The given floor is included");
+        assertEquals(17, tall.nextStopFrom(13), "Destination 17 is the last stop up");
+        tall.setDirection(Elevator.Direction.DOWN);
+        assertEquals(5, tall.nextStopFrom(16), "Up call 12 is served on the way back");
+        assertEquals(Elevator.NO_REQUEST, tall.nextStopFrom(4), "Nothing below floor 5");
+    }
+    
+    @Test
+    @DisplayName("Idle elevator heads down towards a call below")
+    void testChooseDirectionDownFromIdle() {
+        elevator.setDirection(Elevator.Direction.UP);
+        elevator.moveOneFloor();
+        elevator.moveOneFloor(); // Floor 2
+        elevator.setDirection(Elevator.Direction.NONE);
+        elevator.addCall(0);
+        assertEquals(Elevator.Direction.DOWN, elevator.chooseDirection(),
+                     "Should head DOWN when the only call is below");
+    }
+    
+    @Test
+    @DisplayName("Car going up passes a down call when there are requests above")
+    void testPassesOppositeCallOnTheWay() {
+        Elevator tall = new Elevator(0, 5);
+        tall.addCall(2, Elevator.Direction.DOWN);
+        tall.addCall(4, Elevator.Direction.UP);
+        tall.setDirection(Elevator.Direction.UP);
+        tall.moveOneFloor();
+        tall.moveOneFloor(); // Floor 2
+        
+        assertFalse(tall.shouldStopAtCurrentFloor(), "Down call should not stop a car going up");
+        assertEquals(Elevator.Direction.UP, tall.chooseDirection(), "Car should keep going up");
+    }
+    
+    @Test
+    @DisplayName("Car going up stops for a down call before reversing")
+    void testStopsForOppositeCallBeforeReversing() {
+        Elevator tall = new Elevator(0, 5);
+        tall.addCall(3, Elevator.Direction.DOWN);
+        tall.setDirection(Elevator.Direction.UP);
+        tall.moveOneFloor();
+        tall.moveOneFloor();
+        tall.moveOneFloor(); // Floor 3
+        
+        assertTrue(tall.shouldStopAtCurrentFloor(), "Last call before reversing should stop the car");
+        assertEquals(Elevator.Direction.DOWN, tall.chooseServiceDirection(), "Stop should serve DOWN");
+        tall.clearCallsAndDestinationsAtCurrentFloor();
+        assertTrue(tall.getDownCalls().isEmpty(), "Down call should be served");
+    }
+    
+    @Test
+    @DisplayName("Stop clears only the hall call in the served direction")
+    void testClearOnlyServedDirection() {
+        Elevator tall = new Elevator(0, 5);
+        tall.addCall(0, Elevator.Direction.UP);
+        tall.addCall(0, Elevator.Direction.DOWN);
+        tall.addCall(3, Elevator.Direction.UP);
+        
+        assertEquals(Elevator.Direction.UP, tall.chooseServiceDirection(), "Idle car should serve UP first");
+        tall.clearCallsAndDestinationsAtCurrentFloor();
+        assertTrue(tall.getUpCalls().contains(3), "Call at floor 3 should remain");
+        assertFalse(tall.getUpCalls().contains(0), "Up call at floor 0 should be served");
+        assertTrue(tall.getDownCalls().contains(0), "Down call at floor 0 should stay pending");
+        assertEquals(Set.of(0, 3), tall.getCalls(), "getCalls should report every pending call");
+    }
+    
+    @Test
+    @DisplayName("Request snapshots are immutable and only rebuilt after a change")
+    void testRequestSnapshots() {
+        int version = elevator.getRequestVersion();
+        elevator.addDestination(2);
+        assertEquals(version + 1, elevator.getRequestVersion(), "Adding a destination should bump the version");
+        
+        Set<Integer> destinations = elevator.getDestinations();
+        assertSame(destinations, elevator.getDestinations(), "Unchanged requests should reuse the snapshot");
+        assertThrows(UnsupportedOperationException.class, () -> destinations.add(1), "Snapshot should be immutable");
+        
+        elevator.addCall(1, Elevator.Direction.UP);
+        assertNotSame(destinations, elevator.getDestinations(), "A new request should rebuild the snapshot");
+        assertEquals(Set.of(2), elevator.getDestinations(), "Destinations should be unchanged");
+        assertEquals(Set.of(1), elevator.getUpCalls(), "Up call should be in the new snapshot");
+    }
+    
+    @Test
+    @DisplayName("Floor and direction are read consistently without the lock")
+    void testPublishedPosition() {
+        Elevator basement = new Elevator(-3, 3);
+        assertEquals(-3, basement.getFloor(), "Elevator should start at the lowest floor");
+        assertEquals(Elevator.Direction.NONE, basement.getDirection(), "Elevator should start idle");
+        
+        basement.setDirection(Elevator.Direction.UP);
+        basement.moveOneFloor();
+        assertEquals(-2, basement.getFloor(), "Floor should be published after a move");
+        assertEquals(Elevator.Direction.UP, basement.getDirection(), "Direction should be published");
+        
+        basement.stop();
+        assertEquals(Elevator.Direction.NONE, basement.getDirection(), "Stop should publish NONE");
+    }
+    
+    @Test
+    @DisplayName("Batches of calls and destinations are applied with one wake-up")
+    void testBatchRequests() {
+        int[] wakeUps = new int[1];
+        elevator.setRequestListener(() -> wakeUps[0]++);
+        int version = elevator.getRequestVersion();
+        
+        elevator.addCalls(new int[] {1, 2, 7}, new Elevator.Direction[] {
+            Elevator.Direction.UP, Elevator.Direction.DOWN, Elevator.Direction.UP});
+        elevator.addDestinations(new int[] {0, 2});
+        
+        assertEquals(2, wakeUps[0], "Each batch should wake the car up once");
+        assertEquals(version + 2, elevator.getRequestVersion(), "Each batch should bump the version once");
+        assertEquals(Set.of(1), elevator.getUpCalls(), "Invalid floor 7 should be ignored");
+        assertEquals(Set.of(2), elevator.getDownCalls(), "Down call should be recorded");
+        assertEquals(Set.of(2), elevator.getDestinations(), "Destination on the idle floor should be ignored");
+        
+        elevator.addCalls(new int[] {-1});
+        assertEquals(2, wakeUps[0], "A batch with no valid floor should not wake the car");
+    }
+    
+    @Test
+    @DisplayName("Riders waiting for a floor are only released when it is reached")
+    void testWaitForFloorTargeted() throws InterruptedException {
+        Thread waitingFor1 = new Thread(() -> awaitFloor(1));
+        Thread waitingFor2 = new Thread(() -> awaitFloor(2));
+        waitingFor1.start();
+        waitingFor2.start();
+        Thread.sleep(50);
+        
+        elevator.setDirection(Elevator.Direction.UP);
+        elevator.moveOneFloor(); // Floor 1
+        waitingFor1.join(1000);
+        assertFalse(waitingFor1.isAlive(), "Rider waiting for floor 1 should be released");
+        assertTrue(waitingFor2.isAlive(), "Rider waiting for floor 2 should keep waiting");
+        
+        elevator.moveOneFloor(); // Floor 2
+        waitingFor2.join(1000);
+        assertFalse(waitingFor2.isAlive(), "Rider waiting for floor 2 should be released");
+        
+        assertThrows(IllegalArgumentException.class, () -> elevator.waitForFloor(9),
+                     "Waiting for a floor that is not served should fail");
+    }
+    
+    private void awaitFloor(int floor) {
+        try {
+            elevator.waitForFloor(floor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,113 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the EventScheduler class.
+ * Tests the discrete-event engine including:
+ * - Event ordering by time and scheduling order
+ * - Virtual time advancing without waiting
+ * - Events scheduled from other events
+ * - Failing events on the dispatcher thread
+ */
+@DisplayName("Event Scheduler Tests")
+class EventSchedulerTest {
+    
+    private EventScheduler scheduler;
+    
+    @BeforeEach
+    void setUp() {
+        scheduler = new EventScheduler(new VirtualClock());
+    }
+    
+    @Test
+    @DisplayName("Events run in time order")
+    void testEventsRunInTimeOrder() throws InterruptedException {
+        List<Integer> order = new ArrayList<>();
+        scheduler.schedule(300, () -> order.add(3));
+        scheduler.schedule(100, () -> order.add(1));
+        scheduler.schedule(200, () -> order.add(2));
+        
+        scheduler.runFor(1000);
+        assertEquals(List.of(1, 2, 3), order, "Events should run by due time");
+    }
+    
+    @Test
+    @DisplayName("Events due at the same time run in scheduling order")
+    void testSameTimeEventsRunInSchedulingOrder() throws InterruptedException {
+        List<Integer> order = new ArrayList<>();
+        scheduler.schedule(100, () -> order.add(1));
+        scheduler.schedule(100, () -> order.add(2));
+        
+        scheduler.runFor(100);
+        assertEquals(List.of(1, 2), order, "Ties should be broken by scheduling order");
+    }
+    
+    @Test
+    @DisplayName("Virtual time advances to the end of the run")
+    void testVirtualTimeAdvances() throws InterruptedException {
+        long[] seenAt = new long[1];
+        scheduler.schedule(60_000, () -> seenAt[0] = scheduler.now());
+        
+        long start = System.currentTimeMillis();
+        scheduler.runFor(3_600_000);
+        
+        assertEquals(60_000, seenAt[0], "Event should see its own due time");
+        assertEquals(3_600_000, scheduler.now(), "Clock should reach the end of the run");
+        assertTrue(System.currentTimeMillis() - start < 1000, "Virtual hour should not take real time");
+    }
+    
+    @Test
+    @DisplayName("Events can schedule further events")
+    void testNestedScheduling() throws InterruptedException {
+        List<Long> times = new ArrayList<>();
+        scheduler.schedule(10, () -> {
+            times.add(scheduler.now());
+            scheduler.schedule(20, () -> times.add(scheduler.now()));
+        });
+        
+        scheduler.runFor(100);
+        assertEquals(List.of(10L, 30L), times, "Nested event should run relative to its parent");
+    }
+    
+    @Test
+    @DisplayName("Events after the end of the run are kept")
+    void testLaterEventsArePending() throws InterruptedException {
+        scheduler.schedule(500, () -> { });
+        scheduler.runFor(100);
+        assertEquals(1, scheduler.getPendingEventCount(), "Event after the run should stay queued");
+    }
+    
+    @Test
+    @DisplayName("A failing event does not stop the dispatcher thread")
+    void testDispatcherSurvivesFailingEvent() throws InterruptedException {
+        EventScheduler realTime = new EventScheduler(new RealTimeClock());
+        List<Throwable> reported = new ArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, error) -> reported.add(error));
+        try {
+            Thread dispatcher = realTime.startDispatcher("TestDispatcher");
+            CountDownLatch ran = new CountDownLatch(1);
+            realTime.schedule(0, () -> {
+                throw new IllegalStateException("Door is not open");
+            });
+            realTime.schedule(10, ran::countDown);
+            
+            assertTrue(ran.await(5, TimeUnit.SECONDS), "Later events should still run");
+            assertTrue(dispatcher.isAlive(), "Dispatcher thread should keep running");
+            assertEquals(1, realTime.getFailedEventCount(), "Failure should be counted");
+            assertTrue(reported.get(0) instanceof IllegalStateException, "Failure should be reported");
+            realTime.stop();
+            dispatcher.join(5000);
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for the ExecutionTrace class.
+ * Tests trace recording including:
+ * - Event numbering and formatting
+ * - Concurrent lock-free recording
+ * - Snapshots and clearing
+ * - Indexed queries by type, actor and time range, with concurrent or out-of-order recording
+ * - Columnar storage mode
+ */
+@DisplayName("Execution Trace Tests")
+class ExecutionTraceTest {
+    
+    private ExecutionTrace trace;
+    
+    @BeforeEach
+    void setUp() {
+        trace = new ExecutionTrace(new VirtualClock());
+    }
+    
+    @Test
+    @DisplayName("Events are numbered and formatted in recording order")
+    void testRecordAndFormat() {
+        trace.recordUserEvent(0, "effective l'appel 1-UP");
+        trace.recordDoorEvent(1, "ouverture");
+        trace.recordElevatorEvent("Etage: 1");
+        
+        assertEquals(3, trace.getEventCount(), "Three events should be recorded");
+        assertEquals("0.# Usager[0]: # effective l'appel 1-UP\n"
+                   + "1.* Porte[1]: * ouverture\n"
+                   + "2.+ Ascenseur: + Etage: 1\n", trace.getFormattedTrace());
+        assertEquals(1, trace.getEventsByType('*').size(), "One door event");
+        assertEquals(1, trace.getEventsByActor("Usager[0]").size(), "One event for user 0");
+    }
+    
+    @Test
+    @DisplayName("Concurrent producers never lose or duplicate events")
+    void testConcurrentRecording() throws InterruptedException {
+        int producers = 8;
+        int eventsPerProducer = 20_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int userId = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    trace.recordUserEvent(userId, "step");
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        List<ExecutionTrace.TraceEvent> events = trace.getEvents();
+        assertEquals(producers * eventsPerProducer, events.size(), "Every event should be recorded");
+        Set<Integer> numbers = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).eventNumber, "Events should be stored at their sequence number");
+            numbers.add(events.get(i).eventNumber);
+        }
+        assertEquals(events.size(), numbers.size(), "Event numbers should be unique");
+    }
+    
+    @Test
+    @DisplayName("Snapshots are stable views that do not see later events")
+    void testSnapshotIsStable() {
+        trace.recordElevatorEvent("direction: UP");
+        ExecutionTrace.Snapshot snapshot = trace.snapshot();
+        trace.recordElevatorEvent("Etage: 1");
+        
+        assertEquals(1, snapshot.size(), "Snapshot should keep its size");
+        assertEquals(2, trace.getEventCount(), "Trace should keep growing");
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(null),
+                     "Snapshot should be read-only");
+    }
+    
+    @Test
+    @DisplayName("Clear restarts numbering without affecting older snapshots")
+    void testClear() {
+        trace.recordElevatorEvent("direction: UP");
+        ExecutionTrace.Snapshot before = trace.snapshot();
+        trace.clear();
+        trace.recordElevatorEvent("direction: DOWN");
+        
+        assertEquals(1, trace.getEventCount(), "Only the new event should be counted");
+        assertEquals(0, trace.getEvents().get(0).eventNumber, "Numbering should restart");
+        assertEquals("direction: UP", before.get(0).action, "Old snapshot should be unaffected");
+    }
+    
+    @Test
+    @DisplayName("Type and actor queries use the indexes and keep recording order")
+    void testIndexedQueries() throws InterruptedException {
+        int producers = 4;
+        int eventsPerProducer = 5_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int userId = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    trace.recordUserEvent(userId, "step " + i);
+                    trace.recordDoorEvent(userId, "ouverture");
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(producers * eventsPerProducer, trace.getEventsByType('#').size(), "Every user event");
+        assertEquals(0, trace.getEventsByType('+').size(), "No elevator event");
+        List<ExecutionTrace.TraceEvent> user2 = trace.getEventsByActor("Usager[2]");
+        assertEquals(eventsPerProducer, user2.size(), "Every event of user 2");
+        for (int i = 0; i < user2.size(); i++) {
+            assertEquals("step " + i, user2.get(i).action, "Events of one producer should be in order");
+        }
+        assertTrue(trace.getEventsByActor("Usager[9]").isEmpty(), "Unknown actor should have no event");
+    }
+    
+    @Test
+    @DisplayName("Time range queries return the events in [from, to)")
+    void testTimeRange() {
+        VirtualClock clock = new VirtualClock();
+        ExecutionTrace timed = new ExecutionTrace(clock);
+        for (int i = 0; i < 100; i++) {
+            clock.awaitUntil(clock.now() + 10, null);
+            timed.recordElevatorEvent("Etage: " + i);
+        }
+        
+        List<ExecutionTrace.TraceEvent> range = timed.getEventsBetween(200, 300);
+        assertEquals(10, range.size(), "Ten events between 200 and 300");
+        assertEquals(200, range.get(0).timestamp, "Range should start at the first event at 200");
+        assertEquals(290, range.get(9).timestamp, "Range should exclude the end");
+        assertTrue(timed.getEventsBetween(2000, 3000).isEmpty(), "No event after the end");
+        assertEquals(100, timed.getEventsBetween(Long.MIN_VALUE, Long.MAX_VALUE).size(), "Whole trace");
+    }
+    
+    @Test
+    @DisplayName("Time range queries scan a trace whose timestamps decrease")
+    void testTimeRangeOutOfOrder() {
+        trace.record(100, '+', "Ascenseur", "Etage: 1");
+        trace.record(200, '+', "Ascenseur", "Etage: 2");
+        trace.record(50, '+', "Ascenseur", "Etage: 3");
+        trace.record(300, '+', "Ascenseur", "Etage: 4");
+        
+        List<ExecutionTrace.TraceEvent> range = trace.getEventsBetween(0, 150);
+        assertEquals(2, range.size(), "Both early events should be found");
+        assertEquals(100, range.get(0).timestamp, "Events should stay in recording order");
+        assertEquals(50, range.get(1).timestamp, "Late-recorded early event should be found");
+        assertEquals(4, trace.getEventsBetween(Long.MIN_VALUE, Long.MAX_VALUE).size(), "Whole trace");
+    }
+    
+    @Test
+    @DisplayName("Indexed queries keep recording order with concurrent producers")
+    void testConcurrentIndexOrder() throws InterruptedException {
+        int producers = 8;
+        int eventsPerProducer = 20_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    trace.recordElevatorEvent("step");
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        List<ExecutionTrace.TraceEvent> events = trace.getEventsByType('+');
+        assertEquals(producers * eventsPerProducer, events.size(), "Every event should be indexed");
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).eventNumber, "Index should list the events in recording order");
+        }
+    }
+    
+    @Test
+    @DisplayName("Query results are stable views")
+    void testQueryViewsAreStable() {
+        trace.recordElevatorEvent("direction: UP");
+        List<ExecutionTrace.TraceEvent> elevatorEvents = trace.getEventsByType('+');
+        trace.recordElevatorEvent("Etage: 1");
+        
+        assertEquals(1, elevatorEvents.size(), "View should keep its size");
+        assertEquals(2, trace.getEventsByType('+').size(), "New query should see the new event");
+        assertEquals(1, elevatorEvents.stream().count(), "View should stream lazily");
+    }
+    
+    @Test
+    @DisplayName("Columnar storage returns the same events as object storage")
+    void testColumnarStorage() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        ExecutionTrace objects = new ExecutionTrace(clock);
+        ExecutionTrace columns = new ExecutionTrace(clock, ExecutionTrace.StorageMode.COLUMNAR);
+        for (int i = 0; i < 3000; i++) {
+            clock.awaitUntil(clock.now() + 1, null);
+            for (ExecutionTrace trace : List.of(objects, columns)) {
+                trace.recordUserEvent(i % 7, "effective l'appel " + (i % 5) + "-UP");
+                trace.recordElevatorEvent("Etage: " + (i % 5));
+            }
+        }
+        
+        assertEquals(objects.getFormattedTrace(), columns.getFormattedTrace(), "Traces should be identical");
+        assertEquals(objects.getEventsByActor("Usager[3]").size(), columns.getEventsByActor("Usager[3]").size(),
+                     "Actor index should match");
+        assertEquals(20, columns.getEventsBetween(100, 110).size(), "Time range should work on columns");
+        
+        columns.clear();
+        columns.recordElevatorEvent("direction: UP");
+        assertEquals("direction: UP", columns.getEvents().get(0).action, "Clear should keep the mode");
+    }
+}
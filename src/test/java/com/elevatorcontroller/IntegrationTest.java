@@ -1,5 +1,6 @@
 package com.elevatorcontroller;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -23,6 +24,9 @@ class IntegrationTest {
     @BeforeEach
     void setUp() {
         system = new SystemController(0, 2);
+        // These scenarios follow complete trips: users are never distracted
+        system.setEnterProbability(1.0);
+        system.start();
         try {
             Thread.sleep(200);
         } catch (InterruptedException e) {
@@ -30,6 +34,12 @@ class IntegrationTest {
         }
     }
     
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        system.shutdown();
+        assertTrue(system.awaitTermination(5, TimeUnit.SECONDS), "Controller thread should end");
+    }
+    
     @Test
     @DisplayName("Single user scenario: User 0 from floor 1 to floor 2")
     @Timeout(value = 10, unit = TimeUnit.SECONDS)
@@ -252,4 +262,42 @@ class IntegrationTest {
         // Test should complete in reasonable time
         assertTrue(executionTime < 20000, "Execution should complete in reasonable time");
     }
+    
+    @Test
+    @DisplayName("Riders added to the system run on the rider executor")
+    @Timeout(value = 15, unit = TimeUnit.SECONDS)
+    void testRidersOnRiderExecutor() throws Exception {
+        Thread[] threads = new Thread[2];
+        User user0 = new User(0, 0, 2, Elevator.Direction.UP, system) {
+            @Override
+            public void run() {
+                threads[0] = Thread.currentThread();
+                super.run();
+            }
+        };
+        User user1 = new User(1, 2, 1, Elevator.Direction.DOWN, system) {
+            @Override
+            public void run() {
+                threads[1] = Thread.currentThread();
+                super.run();
+            }
+        };
+        system.addRider(user0);
+        system.addRider(user1);
+        
+        assertTrue(system.awaitQuiescence(12, TimeUnit.SECONDS), "Both journeys should end");
+        assertTrue(user0.hasEntered() && user0.hasReachedDest(), "User 0 should ride to its destination");
+        assertTrue(user1.hasEntered() && user1.hasReachedDest(), "User 1 should ride to its destination");
+        for (Thread thread : threads) {
+            assertNotNull(thread, "Every user should have run");
+            assertNotSame(Thread.currentThread(), thread, "Users should not run on the caller");
+            if (system.getRiderExecutor().isVirtual()) {
+                // Thread.isVirtual exists from Java 21 only
+                assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread),
+                             "Users should run on virtual threads");
+            } else {
+                assertTrue(thread.getName().startsWith("Rider-"), "Users should run on rider threads: " + thread);
+            }
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LatencyHistogram class.
+ * Tests the fixed buckets including:
+ * - Exact values for small latencies
+ * - Bounded error of percentiles for large latencies
+ * - Summary figures
+ */
+@DisplayName("Latency Histogram Tests")
+class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Small values are counted exactly")
+    void testSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        
+        assertEquals(10, histogram.getCount(), "Every value should be counted");
+        assertEquals(5, histogram.getP50(), "p50 of 1..10 should be 5");
+        assertEquals(10, histogram.getP99(), "p99 of 1..10 should be 10");
+        assertEquals(5.5, histogram.getMean(), 1e-9, "Mean should be exact");
+    }
+    
+    @Test
+    @DisplayName("Percentiles of large values are within one bucket")
+    void testLargeValuesBoundedError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        
+        assertEquals(50_000, histogram.getP50(), 50_000 / 8.0, "p50 should be within 1/8");
+        assertEquals(95_000, histogram.getP95(), 95_000 / 8.0, "p95 should be within 1/8");
+        assertEquals(99_000, histogram.getP99(), 99_000 / 8.0, "p99 should be within 1/8");
+        assertTrue(histogram.getP99() <= histogram.getMax(), "Percentiles should not exceed the maximum");
+        assertEquals(100_000, histogram.getMax(), "Maximum should be exact");
+    }
+    
+    @Test
+    @DisplayName("Every bucket bound maps back to its bucket")
+    void testBucketBounds() {
+        for (long value : new long[] {0, 15, 16, 17, 1000, 1L << 40, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= value, "Upper bound should cover " + value);
+            assertEquals(bucket, LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket)),
+                         "Upper bound of bucket " + bucket + " should be in it");
+        }
+    }
+    
+    @Test
+    @DisplayName("Empty and reset histograms report zeros")
+    void testEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getP95(), "Empty histogram should report 0");
+        
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount(), "Reset should forget values");
+        assertEquals(0, histogram.getMax(), "Reset should forget the maximum");
+    }
+    
+    @Test
+    @DisplayName("Merged histograms hold the values of both")
+    void testAdd() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            first.record(i);
+            second.record(50 + i);
+        }
+        first.add(second);
+        
+        assertEquals(100, first.getCount(), "Merged histogram should count both");
+        assertEquals(100, first.getMax(), "Merged histogram should keep the largest maximum");
+        assertEquals(50.5, first.getMean(), 0.001, "Merged histogram should average both");
+        assertEquals(50, first.getP50(), 50 / 8, "Median should be in the middle of both");
+    }
+}
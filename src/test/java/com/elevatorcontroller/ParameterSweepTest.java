@@ -0,0 +1,78 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Unit tests for the ParameterSweep class.
+ * Tests parameter sweeps including:
+ * - One result per point, aggregated over the runs
+ * - Parameters changing the statistics
+ * - Reproducible results on any pool
+ * - Result table
+ */
+@DisplayName("Parameter Sweep Tests")
+class ParameterSweepTest {
+    
+    private static final List<ParameterSweep.Point> POINTS = Arrays.asList(
+        new ParameterSweep.Point(Timings.DEFAULTS, 1.0),
+        new ParameterSweep.Point(Timings.DEFAULTS.withMovementTime(2000), 1.0),
+        new ParameterSweep.Point(Timings.DEFAULTS, 0.5));
+    
+    @Test
+    @DisplayName("Each point is simulated and its runs aggregated")
+    void testSweep() throws InterruptedException {
+        List<ParameterSweep.Result> results = newSweep().run(POINTS);
+        
+        assertEquals(3, results.size(), "One result per point");
+        ParameterSweep.Result base = results.get(0);
+        ParameterSweep.Result slow = results.get(1);
+        ParameterSweep.Result distracted = results.get(2);
+        
+        assertEquals(4, base.getRuns(), "Every run should be counted");
+        assertEquals(base.getUsers(), base.getServed(), "Users who always enter should all be served");
+        assertEquals(base.getUsers(), slow.getUsers(), "Points should see the same arrivals");
+        assertTrue(slow.getRideTime().getMean() > base.getRideTime().getMean(), "Slower cars should ride longer");
+        assertTrue(distracted.getServed() < distracted.getUsers(), "Distracted users should not all be served");
+    }
+    
+    @Test
+    @DisplayName("Results are the same on any pool and are written as a table")
+    void testReproducibleTable() throws InterruptedException, IOException {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            List<ParameterSweep.Result> sequential = newSweep().run(POINTS, single);
+            List<ParameterSweep.Result> parallel = newSweep().run(POINTS);
+            
+            StringBuilder first = new StringBuilder();
+            StringBuilder second = new StringBuilder();
+            ParameterSweep.writeTable(sequential, first);
+            ParameterSweep.writeTable(parallel, second);
+            assertEquals(first.toString(), second.toString(), "Same seed should give the same table");
+            
+            String[] lines = first.toString().split("\n");
+            assertEquals(4, lines.length, "Header and one row per point");
+            assertTrue(lines[0].startsWith("movement,acceleration,stop,dwell"), "Table should start with a header");
+            assertTrue(lines[2].startsWith("2000,"), "Row should start with the movement time");
+            assertTrue(lines[2].startsWith("2000," + Timings.DEFAULTS.getAccelerationTime() + ","),
+                       "Acceleration time should follow the movement time");
+            assertEquals(lines[0].split(",").length, lines[2].split(",").length, "Every column should have a value");
+        } finally {
+            single.shutdown();
+        }
+    }
+    
+    private ParameterSweep newSweep() {
+        ParameterSweep sweep = new ParameterSweep(0, 9, 2);
+        sweep.setTraffic(TrafficPattern.LUNCH, 6);
+        sweep.setDuration(30 * 60 * 1000L, 2 * 60 * 60 * 1000L);
+        sweep.setRunsPerPoint(4);
+        sweep.setSeed(11);
+        return sweep;
+    }
+}
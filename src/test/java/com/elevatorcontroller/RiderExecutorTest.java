@@ -0,0 +1,58 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the RiderExecutor class.
+ * Tests rider execution including:
+ * - Virtual thread availability and platform fallback
+ * - Many blocked riders running concurrently
+ */
+@DisplayName("Rider Executor Tests")
+class RiderExecutorTest {
+    
+    @Test
+    @DisplayName("Virtual threads are used only when the runtime supports them")
+    void testVirtualThreadFallback() {
+        boolean supported;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+        RiderExecutor executor = RiderExecutor.virtualThreads();
+        assertEquals(supported, executor.isVirtual(), "Executor should fall back to platform threads");
+        assertFalse(RiderExecutor.platformThreads().isVirtual(), "Platform executor is never virtual");
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("Blocked riders all run at the same time")
+    void testBlockedRidersRunConcurrently() throws InterruptedException {
+        RiderExecutor executor = RiderExecutor.virtualThreads();
+        int riders = 1000;
+        CountDownLatch started = new CountDownLatch(riders);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        for (int i = 0; i < riders; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        
+        assertTrue(started.await(10, TimeUnit.SECONDS), "All riders should be waiting at once");
+        release.countDown();
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "All riders should finish");
+    }
+}
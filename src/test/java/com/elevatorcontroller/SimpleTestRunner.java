@@ -187,6 +187,7 @@ public class SimpleTestRunner {
         // Test 1: System initializes with correct floors
         test("System initializes with correct floors", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             assert system.getElevator() != null : "Elevator should be initialized";
             assert system.getDoor(0) != null : "Door at floor 0 should exist";
@@ -197,6 +198,7 @@ public class SimpleTestRunner {
         // Test 2: Elevator starts at lowest floor
         test("Elevator starts at lowest floor", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             assert system.getElevator().getFloor() == 0 : "Elevator should start at floor 0";
         });
@@ -204,6 +206,7 @@ public class SimpleTestRunner {
         // Test 3: Can retrieve door by floor
         test("Can retrieve door by floor", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             Door door = system.getDoor(1);
             assert door != null : "Door at floor 1 should exist";
@@ -213,6 +216,7 @@ public class SimpleTestRunner {
         // Test 4: Call elevator adds call to elevator
         test("Call elevator adds call to elevator", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             system.callElevator(1, Elevator.Direction.UP);
             assert system.getElevator().getCalls().contains(1) : "Call for floor 1 should be recorded";
@@ -221,6 +225,7 @@ public class SimpleTestRunner {
         // Test 5: Invalid floor call is rejected
         test("Invalid floor call is rejected", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             system.callElevator(5, Elevator.Direction.UP);
             assert !system.getElevator().getCalls().contains(5) : "Call for invalid floor should not be recorded";
@@ -229,6 +234,7 @@ public class SimpleTestRunner {
         // Test 6: System has all required doors
         test("System has all required doors", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(100);
             for (int floor = 0; floor <= 2; floor++) {
                 Door door = system.getDoor(floor);
@@ -247,6 +253,8 @@ public class SimpleTestRunner {
         // Test 1: Single user scenario
         test("Single user completes journey", () -> {
             SystemController system = new SystemController(0, 2);
+            system.setEnterProbability(1.0);
+            system.start();
             Thread.sleep(200);
             User user = new User(0, 0, 2, Elevator.Direction.UP, system);
             Thread userThread = new Thread(user);
@@ -258,6 +266,7 @@ public class SimpleTestRunner {
         // Test 2: System responds to elevator calls
         test("System elevator moves when called", () -> {
             SystemController system = new SystemController(0, 2);
+            system.start();
             Thread.sleep(200);
             Elevator elevator = system.getElevator();
             system.callElevator(2, Elevator.Direction.UP);
@@ -1,9 +1,22 @@
 package com.elevatorcontroller;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for the SystemController class.
@@ -22,6 +35,7 @@ class SystemControllerTest {
     void setUp() {
         // Create system with 3 floors (0, 1, 2)
         system = new SystemController(0, 2);
+        system.start();
         // Allow some time for controller to start
         try {
             Thread.sleep(100);
@@ -30,6 +44,12 @@ class SystemControllerTest {
         }
     }
     
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        system.shutdown();
+        assertTrue(system.awaitTermination(5, TimeUnit.SECONDS), "Controller thread should end");
+    }
+    
     @Test
     @DisplayName("System initializes with correct floors")
     void testSystemInitialization() {
@@ -111,4 +131,617 @@ class SystemControllerTest {
         assertEquals(initialFloor, elevator.getFloor(), 
                      "Elevator should remain at initial floor with no calls");
     }
+    
+    @Test
+    @DisplayName("Virtual-time mode simulates hours of traffic without real waiting")
+    void testVirtualTimeSimulation() throws InterruptedException {
+        SystemController simulation = new SystemController(0, 19, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.start();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int start = (i * 7) % 20;
+            int destination = (start + 1 + (i * 3) % 19) % 20;
+            Elevator.Direction direction = destination > start ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+            User user = new User(i, start, destination, direction, simulation);
+            users.add(user);
+            simulation.getScheduler().schedule(i * 1000L, () -> simulation.addRider(user));
+        }
+        
+        simulation.runFor(2 * 60 * 60 * 1000L);
+        
+        int entered = 0;
+        for (User user : users) {
+            if (user.hasEntered()) {
+                entered++;
+                assertTrue(user.hasReachedDest(), "User " + user.getUserId() + " should reach destination");
+            }
+        }
+        assertTrue(entered > 0, "Some users should enter the elevator");
+        assertEquals(2 * 60 * 60 * 1000L, simulation.getScheduler().now(), "Simulated time should reach two hours");
+    }
+    
+    @Test
+    @DisplayName("Runs with the same seed make the same rider decisions")
+    void testSeededRiderDecisions() throws InterruptedException {
+        List<Boolean> first = simulateDecisions(42, SystemController.DEFAULT_ENTER_PROBABILITY);
+        List<Boolean> second = simulateDecisions(42, SystemController.DEFAULT_ENTER_PROBABILITY);
+        
+        assertEquals(first, second, "Same seed should give the same decisions");
+        assertTrue(first.contains(true) && first.contains(false), "Some users should decline, most should enter");
+        assertFalse(simulateDecisions(42, 0.0).contains(true), "No user should enter with probability 0");
+        assertFalse(simulateDecisions(42, 1.0).contains(false), "Every user should enter with probability 1");
+        assertThrows(IllegalArgumentException.class, () -> system.setEnterProbability(1.5));
+    }
+    
+    private List<Boolean> simulateDecisions(long seed, double enterProbability) throws InterruptedException {
+        SystemController simulation = new SystemController(0, 9, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.setRandomSeed(seed);
+        simulation.setEnterProbability(enterProbability);
+        simulation.start();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = new User(i, i % 10, (i + 3) % 10, i % 10 < 7 ? Elevator.Direction.UP : Elevator.Direction.DOWN,
+                                 simulation);
+            users.add(user);
+            simulation.getScheduler().schedule(i * 1000L, () -> simulation.addRider(user));
+        }
+        simulation.runFor(60 * 60 * 1000L);
+        
+        List<Boolean> entered = new ArrayList<>();
+        for (User user : users) {
+            entered.add(user.hasEntered());
+        }
+        return entered;
+    }
+    
+    @Test
+    @DisplayName("Riders' random streams are not shifted copies of each other")
+    void testRiderStreamsIndependent() throws InterruptedException {
+        for (long seed : new long[] {0, 42}) {
+            try (SystemController simulation = new SystemController(0, 9, new VirtualClock())) {
+                simulation.setRandomSeed(seed);
+                simulation.start();
+                Set<Long> draws = new HashSet<>();
+                for (int rider = 0; rider < 20; rider++) {
+                    SplittableRandom random = simulation.newRiderRandom(rider);
+                    for (int i = 0; i < 8; i++) {
+                        assertTrue(draws.add(random.nextLong()),
+                                   "Rider " + rider + " should not replay another rider's draws (seed " + seed + ")");
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Timings set on the system drive the cars and doors")
+    void testTimings() throws Exception {
+        Timings slow = Timings.DEFAULTS.withMovementTime(1000).withDoorOpeningTime(500);
+        assertEquals(CarController.MOVEMENT_TIME, Timings.DEFAULTS.getMovementTime(), "Defaults should not change");
+        assertThrows(IllegalArgumentException.class, () -> Timings.DEFAULTS.withStopTime(-1));
+        
+        SystemController simulation = new SystemController(0, 5, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.setTimings(slow);
+        simulation.start();
+        CompletableFuture<RideResult> ride = simulation.requestRide(2, 5).toCompletableFuture();
+        simulation.runFor(60 * 1000L);
+        RideResult timed = ride.get();
+        assertTrue(timed.getWaitTime() >= 2 * 1000 + 500, "Car should take the slow movement and door times");
+        assertTrue(timed.getRideTime() >= 3 * 1000 + 500, "Ride should take the slow movement and door times");
+    }
+    
+    @Test
+    @DisplayName("Express runs accelerate and brake once per trip")
+    void testExpressRun() throws Exception {
+        RideResult constant = rideAlone(Timings.DEFAULTS, 0, 30);
+        RideResult accelerated = rideAlone(Timings.DEFAULTS.withAccelerationTime(400), 0, 30);
+        
+        // Reaching full speed and braking each cost half a floor more than moving at full speed
+        assertEquals(400, accelerated.getRideTime() - constant.getRideTime(), 1,
+                     "Acceleration should only slow the start and the end of the trip");
+        RideResult hop = rideAlone(Timings.DEFAULTS.withAccelerationTime(400), 0, 1);
+        RideResult constantHop = rideAlone(Timings.DEFAULTS, 0, 1);
+        assertTrue(hop.getRideTime() - constantHop.getRideTime() > 300, "A short hop never reaches full speed");
+    }
+    
+    @Test
+    @DisplayName("Cars pick up calls ahead only if they can still brake for them")
+    void testCallsDuringExpressRun() throws Exception {
+        Timings timings = Timings.DEFAULTS.withAccelerationTime(800); // 2 floors to brake at full speed
+        
+        SystemController reachable = new SystemController(0, 30, new VirtualClock());
+        reachable.setEventLog(EventLog.silent());
+        reachable.setTimings(timings);
+        reachable.start();
+        CompletableFuture<RideResult> express = reachable.requestRide(0, 30).toCompletableFuture();
+        CompletableFuture<RideResult> ahead = new CompletableFuture<>();
+        whenCarReaches(reachable, 10, () -> reachable.requestRide(20, 25).thenAccept(ahead::complete));
+        reachable.runFor(60 * 1000L);
+        assertTrue(ahead.get().getBoardingTime() < express.get().getExitTime(), "Call far ahead should be picked up");
+        
+        SystemController tooClose = new SystemController(0, 30, new VirtualClock());
+        tooClose.setEventLog(EventLog.silent());
+        tooClose.setTimings(timings);
+        tooClose.start();
+        express = tooClose.requestRide(0, 30).toCompletableFuture();
+        CompletableFuture<RideResult> missed = new CompletableFuture<>();
+        whenCarReaches(tooClose, 10, () -> tooClose.requestRide(11, 12).thenAccept(missed::complete));
+        tooClose.runFor(60 * 1000L);
+        assertTrue(missed.get().getBoardingTime() > express.get().getExitTime(),
+                   "Call on the next floor at full speed should be served after the trip");
+    }
+    
+    private RideResult rideAlone(Timings timings, int source, int destination) throws Exception {
+        SystemController simulation = new SystemController(0, 30, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.setTimings(timings);
+        simulation.start();
+        CompletableFuture<RideResult> ride = simulation.requestRide(source, destination).toCompletableFuture();
+        simulation.runFor(60 * 1000L);
+        return ride.get();
+    }
+    
+    /**
+     * Run an action on the scheduler once the first car has reached a floor
+     */
+    private void whenCarReaches(SystemController simulation, int floor, Runnable action) {
+        simulation.getScheduler().schedule(10, () -> {
+            if (simulation.getElevator().getFloor() == floor) {
+                action.run();
+            } else {
+                whenCarReaches(simulation, floor, action);
+            }
+        });
+    }
+    
+    @Test
+    @DisplayName("Draining serves the riders already in and refuses new ones")
+    void testDrain() throws Exception {
+        CompletableFuture<RideResult> ride = system.requestRide(0, 2).toCompletableFuture();
+        system.getElevator().addCall(1);
+        assertFalse(system.isQuiescent(), "Building should be busy");
+        
+        assertTrue(system.drain(10, TimeUnit.SECONDS), "Building should become quiescent");
+        assertTrue(ride.isDone() && !ride.isCompletedExceptionally(), "Ride in the building should complete");
+        assertEquals(0, system.getElevator().getRequestCount(), "Every call should be served");
+        assertTrue(system.isQuiescent(), "Building should stay quiescent");
+        
+        CompletableFuture<RideResult> late = system.requestRide(0, 1).toCompletableFuture();
+        assertTrue(late.isCompletedExceptionally(), "New rides should be refused");
+        assertThrows(IllegalStateException.class,
+                     () -> system.addRider(new User(0, 0, 1, Elevator.Direction.UP, system)));
+    }
+    
+    @Test
+    @DisplayName("Cancelling a ride stage does not keep the building busy")
+    void testCancelRideStage() throws Exception {
+        CompletableFuture<RideResult> cancelled = system.requestRide(0, 2).toCompletableFuture();
+        CompletableFuture<RideResult> completed = system.requestRide(0, 1).toCompletableFuture();
+        assertTrue(cancelled.cancel(false), "Returned stage should be cancellable");
+        assertTrue(completed.complete(null), "Returned stage should be completable");
+        assertFalse(system.isQuiescent(), "Rides should still be pending");
+    
+        assertTrue(system.drain(10, TimeUnit.SECONDS), "Rides should still run to the end");
+        assertTrue(system.isQuiescent(), "No rider should stay registered with the car");
+        assertEquals(2, system.getMetrics().getRidersServed(), "Both riders should reach their floor");
+    }
+    
+    @Test
+    @DisplayName("Shutdown stops the controller, interrupts riders and cancels rides")
+    void testShutdown() throws Exception {
+        SystemController building = new SystemController(0, 9);
+        building.setEventLog(EventLog.silent());
+        building.setEnterProbability(1.0);
+        building.start();
+        User user = new User(0, 9, 0, Elevator.Direction.DOWN, building);
+        building.addRider(user);
+        CompletableFuture<RideResult> ride = building.requestRide(9, 0).toCompletableFuture();
+        Thread.sleep(100);
+        
+        building.shutdown();
+        building.shutdown();
+        assertTrue(building.awaitTermination(5, TimeUnit.SECONDS), "Controller and rider threads should end");
+        assertTrue(building.isShutdown(), "Building should be shut down");
+        assertThrows(CancellationException.class, ride::get, "Pending ride should be cancelled");
+        assertFalse(user.hasReachedDest(), "Interrupted rider should not arrive");
+        assertFalse(building.getScheduler().isRunning(), "Scheduler should be stopped");
+    }
+    
+    @Test
+    @DisplayName("Cars only move once the building is started")
+    void testExplicitStart() throws Exception {
+        SystemController simulation = new SystemController(0, 9, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        CompletableFuture<RideResult> ride = simulation.requestRide(0, 5).toCompletableFuture();
+        simulation.runFor(60 * 1000L);
+        assertFalse(ride.isDone(), "A building that is not started should not serve rides");
+        
+        simulation.start();
+        simulation.start();
+        simulation.runFor(60 * 1000L);
+        assertEquals(5, ride.get().getDestinationFloor(), "Ride requested before the start should be served");
+        
+        simulation.shutdown();
+        assertThrows(IllegalStateException.class, simulation::start, "A shut down building cannot restart");
+    }
+    
+    @Test
+    @DisplayName("Shutdown leaves a caller-supplied rider executor running")
+    void testCallerRiderExecutorKept() throws Exception {
+        RiderExecutor executor = RiderExecutor.platformThreads();
+        try {
+            SystemController building = new SystemController(0, 9);
+            building.setEventLog(EventLog.silent());
+            building.setRiderExecutor(executor);
+            building.start();
+            User user = new User(0, 9, 0, Elevator.Direction.DOWN, building);
+            building.addRider(user);
+            Thread.sleep(100);
+            
+            building.shutdown();
+            assertTrue(building.awaitTermination(5, TimeUnit.SECONDS), "Riders of the building should end");
+            assertFalse(user.hasReachedDest(), "Interrupted rider should not arrive");
+            
+            CountDownLatch ran = new CountDownLatch(1);
+            executor.execute(ran::countDown);
+            assertTrue(ran.await(5, TimeUnit.SECONDS), "Caller's executor should still run tasks");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Virtual-time buildings run until quiescent")
+    void testVirtualQuiescence() throws InterruptedException {
+        try (SystemController simulation = new SystemController(0, 19, 2, new VirtualClock())) {
+            simulation.setEventLog(EventLog.silent());
+            simulation.start();
+            for (int i = 0; i < 20; i++) {
+                simulation.requestRide(i, 19 - i);
+            }
+            assertTrue(simulation.awaitQuiescence(1, TimeUnit.HOURS), "Every ride should be served");
+            assertEquals(20, simulation.getMetrics().getRidersServed(), "Every ride should be counted");
+            assertTrue(simulation.getScheduler().now() < 10 * 60 * 1000L, "Simulation should stop when quiescent");
+        }
+    }
+    
+    @Test
+    @DisplayName("Riders board in batches up to the car capacity")
+    void testCarCapacity() throws Exception {
+        try (SystemController simulation = new SystemController(0, 9, new VirtualClock())) {
+            simulation.setEventLog(EventLog.silent());
+            simulation.setCarCapacity(2);
+            simulation.start();
+            List<CompletableFuture<RideResult>> rides = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                rides.add(simulation.requestRide(0, 5 + i).toCompletableFuture());
+            }
+            CompletableFuture<RideResult> passedBy = new CompletableFuture<>();
+            whenCarReaches(simulation, 1, () -> simulation.requestRide(3, 9).thenAccept(passedBy::complete));
+            int[] maxLoad = new int[1];
+            monitorLoad(simulation, maxLoad);
+            
+            assertTrue(simulation.awaitQuiescence(1, TimeUnit.HOURS), "Every rider should be served");
+            assertEquals(2, maxLoad[0], "Load should never exceed the capacity");
+            assertEquals(rides.get(0).get().getBoardingTime(), rides.get(1).get().getBoardingTime(),
+                         "The first two riders should board together");
+            assertTrue(rides.get(2).get().getBoardingTime() > rides.get(1).get().getExitTime(),
+                       "The third rider should wait for the car to come back");
+            assertTrue(passedBy.get().getBoardingTime() > rides.get(1).get().getExitTime(),
+                       "Full car should pass the call at floor 3 by");
+            assertEquals(0, simulation.getElevator().getLoad(), "Car should be empty at the end");
+        }
+    }
+    
+    @Test
+    @DisplayName("Hall calls go to a car with room")
+    void testDispatchAvoidsFullCar() {
+        SystemController group = new SystemController(0, 9, 2, new VirtualClock());
+        group.setCarCapacity(1);
+        group.start();
+        group.getElevator(0).board(1);
+        group.getElevator(1).addCall(9);
+        group.getElevator(1).addCall(8);
+        
+        assertEquals(1, group.callElevator(0, Elevator.Direction.UP), "Full car 0 should not take the call");
+    }
+    
+    @Test
+    @DisplayName("Riders left behind by a full car are dispatched to a car with room")
+    void testLeftBehindRidersReassigned() throws Exception {
+        try (SystemController group = new SystemController(0, 19, 2, new VirtualClock())) {
+            group.setEventLog(EventLog.silent());
+            group.setCarCapacity(2);
+            group.start();
+            // Park car 1 away from the lobby, so the lobby calls all go to car 0
+            group.getElevator(1).addDestination(10);
+            assertTrue(group.awaitQuiescence(1, TimeUnit.HOURS), "Car 1 should park at floor 10");
+            List<CompletableFuture<RideResult>> rides = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                rides.add(group.requestRide(0, 19).toCompletableFuture());
+            }
+            
+            assertTrue(group.awaitQuiescence(1, TimeUnit.HOURS), "Every rider should be served");
+            RideResult first = rides.get(0).get();
+            RideResult third = rides.get(2).get();
+            assertEquals(first.getCar(), rides.get(1).get().getCar(), "The first two riders should share a car");
+            assertNotEquals(first.getCar(), third.getCar(), "The rider left behind should get the other car");
+            assertTrue(third.getBoardingTime() < first.getExitTime(),
+                       "The rider left behind should not wait for the full car to come back");
+        }
+    }
+    
+    @Test
+    @DisplayName("A full car with only hall calls parks until room is freed")
+    void testFullCarParksOnHallCalls() {
+        try (SystemController simulation = new SystemController(0, 9, new VirtualClock())) {
+            simulation.setEventLog(EventLog.silent());
+            simulation.setCarCapacity(1);
+            simulation.start();
+            Elevator car = simulation.getElevator();
+            car.board(1);
+            simulation.callElevator(5, Elevator.Direction.UP);
+            
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> simulation.runFor(1000),
+                                      "Full car should park instead of spinning");
+            assertEquals(0, car.getFloor(), "Full car should not travel to the hall call");
+            assertEquals(1, car.getRequestCount(), "Hall call should stay pending");
+            
+            car.alight(1);
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> simulation.runFor(60 * 1000L));
+            assertEquals(0, car.getRequestCount(), "Car with room should serve the hall call");
+        }
+    }
+    
+    /**
+     * Record the largest load of the first car, checked at every event time
+     */
+    private void monitorLoad(SystemController simulation, int[] maxLoad) {
+        simulation.getScheduler().schedule(1, () -> {
+            maxLoad[0] = Math.max(maxLoad[0], simulation.getElevator().getLoad());
+            if (!simulation.isQuiescent()) {
+                monitorLoad(simulation, maxLoad);
+            }
+        });
+    }
+    
+    @Test
+    @DisplayName("Hall calls are dispatched to the least busy car")
+    void testDispatchToLeastBusyCar() {
+        SystemController group = new SystemController(0, 9, 2, new VirtualClock());
+        group.start();
+        group.getElevator(0).addCall(9);
+        group.getElevator(0).addCall(8);
+        
+        assertEquals(1, group.callElevator(0, Elevator.Direction.UP), "Idle car 1 should take the call");
+        assertTrue(group.getElevator(1).getCalls().contains(0), "Call should be recorded on car 1");
+        assertFalse(group.getElevator(0).getCalls().contains(0), "Call should not be recorded on car 0");
+    }
+    
+    @Test
+    @DisplayName("Group of cars serves riders with at most one door open per car")
+    void testGroupControlInvariants() throws InterruptedException {
+        SystemController group = new SystemController(0, 19, 3, new VirtualClock());
+        group.setEventLog(EventLog.silent());
+        group.start();
+        assertEquals(3, group.getCarCount(), "Building should have three cars");
+        
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            int start = (i * 11) % 20;
+            int destination = (start + 1 + (i * 5) % 19) % 20;
+            Elevator.Direction direction = destination > start ? Elevator.Direction.UP : Elevator.Direction.DOWN;
+            User user = new User(i, start, destination, direction, group);
+            users.add(user);
+            group.getScheduler().schedule(i * 500L, () -> group.addRider(user));
+        }
+        
+        // Check the per-car invariants every 25ms of simulated time
+        boolean[] violated = new boolean[1];
+        Runnable[] monitor = new Runnable[1];
+        monitor[0] = () -> {
+            for (int car = 0; car < group.getCarCount(); car++) {
+                int open = 0;
+                for (int floor = 0; floor <= 19; floor++) {
+                    Door door = group.getDoor(car, floor);
+                    if (door.isOpen()) {
+                        open++;
+                    }
+                }
+                if (open > 1 || (open == 1 && group.isMoving(car))) {
+                    violated[0] = true;
+                }
+            }
+            group.getScheduler().schedule(25, monitor[0]);
+        };
+        group.getScheduler().schedule(0, monitor[0]);
+        
+        group.runFor(30 * 60 * 1000L);
+        
+        assertFalse(violated[0], "A car should never have two doors open or move with a door open");
+        boolean[] carsUsed = new boolean[3];
+        for (User user : users) {
+            if (user.hasEntered()) {
+                carsUsed[user.getCar()] = true;
+                assertTrue(user.hasReachedDest(), "User " + user.getUserId() + " should reach destination");
+            }
+        }
+        assertTrue(carsUsed[0] && carsUsed[1], "Calls should be spread over several cars");
+    }
+    
+    @Test
+    @DisplayName("Events of a simulation can be routed into an execution trace")
+    void testEventLogFeedsTrace() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        SystemController simulation = new SystemController(0, 2, clock);
+        ExecutionTrace trace = new ExecutionTrace(clock);
+        AsyncEventLog log = new AsyncEventLog(null, trace, clock, 1024, AsyncEventLog.OverflowPolicy.BLOCK);
+        simulation.setEventLog(log);
+        simulation.start();
+        
+        simulation.callElevator(2, Elevator.Direction.DOWN);
+        simulation.runFor(5000);
+        log.close();
+        
+        assertFalse(trace.getEventsByActor("Porte[2]").isEmpty(), "Door 2 events should be traced");
+        assertEquals("direction: UP", trace.getEventsByType('+').get(0).action,
+                     "Elevator should first head up");
+    }
+    
+    @Test
+    @DisplayName("Idle car parks without polling and answers the first call immediately")
+    void testIdleCarParks() throws InterruptedException {
+        SystemController simulation = new SystemController(0, 2, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.start();
+        
+        simulation.runFor(60 * 60 * 1000L);
+        assertEquals(0, simulation.getScheduler().getPendingEventCount(),
+                     "A parked car should not keep scheduling polls");
+        
+        simulation.callElevator(0, Elevator.Direction.UP);
+        simulation.runFor(Door.DOOR_OPENING_TIME);
+        assertTrue(simulation.getDoor(0).isOpen(),
+                   "Door should open right after the opening time, without poll latency");
+    }
+    
+    @Test
+    @DisplayName("Riders only board a car serving their direction")
+    void testRidersBoardInTheirDirection() throws InterruptedException {
+        SystemController simulation = new SystemController(0, 5, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.setRandomSeed(42);
+        simulation.setEnterProbability(1.0);
+        simulation.start();
+        
+        // The car goes up to 5 for the first rider and passes floor 2, where the second waits to go down
+        User goingUp = new User(0, 0, 5, Elevator.Direction.UP, simulation);
+        Elevator.Direction[] boardingDirection = new Elevator.Direction[1];
+        boolean[] upArrivedFirst = new boolean[1];
+        User goingDown = new User(1, 2, 0, Elevator.Direction.DOWN, simulation) {
+            @Override
+            boolean onStartDoorOpened() {
+                boardingDirection[0] = simulation.getElevator().getDirection();
+                upArrivedFirst[0] = goingUp.hasReachedDest();
+                return super.onStartDoorOpened();
+            }
+        };
+        simulation.addRider(goingUp);
+        simulation.runFor(100);
+        simulation.addRider(goingDown);
+        simulation.runFor(60 * 1000L);
+        
+        assertTrue(goingUp.hasEntered() && goingUp.hasReachedDest(), "Rider going up should arrive");
+        assertTrue(goingDown.hasEntered() && goingDown.hasReachedDest(), "Rider going down should arrive");
+        assertEquals(Elevator.Direction.DOWN, boardingDirection[0], "Rider going down should board a car going down");
+        assertTrue(upArrivedFirst[0], "Rider going down should not be picked up on the way up");
+        assertTrue(simulation.getElevator().getCalls().isEmpty(), "Every call should be served");
+    }
+    
+    @Test
+    @DisplayName("Metrics record rider latencies and car activity")
+    void testMetrics() throws InterruptedException {
+        SystemController simulation = new SystemController(0, 5, new VirtualClock());
+        simulation.setEventLog(EventLog.silent());
+        simulation.setEnterProbability(1.0);
+        simulation.start();
+        
+        User user = new User(0, 0, 3, Elevator.Direction.UP, simulation);
+        simulation.addRider(user);
+        simulation.runFor(60 * 1000L);
+        
+        SystemMetrics metrics = simulation.getMetrics();
+        assertTrue(user.hasReachedDest(), "The rider should arrive");
+        LatencyHistogram wait = metrics.getWaitTime();
+        assertEquals(1, wait.getCount(), "The door should open once for the rider");
+        assertEquals(Door.DOOR_OPENING_TIME, wait.getMax(), "The parked car should only open its door");
+        assertEquals(wait.getMax(), wait.getP50(), "A single wait is its own median");
+        assertEquals(wait.getMax(), wait.getP99(), "A single wait is its own 99th percentile");
+        
+        LatencyHistogram ride = metrics.getRideTime();
+        assertEquals(1, ride.getCount(), "One ride should be recorded");
+        assertEquals(1, metrics.getRidersServed(), "The rider should be counted as served");
+        assertTrue(ride.getP50() >= 3 * CarController.MOVEMENT_TIME, "The ride should last at least the travel time");
+        assertEquals(ride.getP50(), ride.getP95(), "A single ride is its own 95th percentile");
+        assertEquals(1, metrics.getStopsPerTrip().getMax(), "The ride should make a single stop");
+        assertTrue(metrics.getStops(0) >= 2, "The car should stop at both floors");
+        assertEquals(3, metrics.getFloorsTraveled(0), "The car should travel 3 floors");
+        double utilization = metrics.getUtilization(0);
+        assertTrue(utilization > 0.0 && utilization < 0.5, "The car should be parked most of the minute");
+    }
+    
+    @Test
+    @DisplayName("A burst of calls is spread over the idle cars")
+    void testCallElevatorBatch() {
+        SystemController group = new SystemController(0, 39, 4, new VirtualClock());
+        group.setEventLog(EventLog.silent());
+        group.start();
+        int[] floors = new int[33];
+        Elevator.Direction[] directions = new Elevator.Direction[floors.length];
+        for (int i = 0; i < 32; i++) {
+            floors[i] = i;
+            directions[i] = Elevator.Direction.UP;
+        }
+        floors[32] = 50;
+        directions[32] = Elevator.Direction.UP;
+        
+        int[] cars = group.callElevatorBatch(floors, directions);
+        
+        assertEquals(-1, cars[32], "Invalid floor should not be assigned");
+        int[] callsPerCar = new int[4];
+        for (int i = 0; i < 32; i++) {
+            assertTrue(group.getElevator(cars[i]).getUpCalls().contains(i), "Call at " + i + " should be on its car");
+            callsPerCar[cars[i]]++;
+        }
+        for (int car = 0; car < 4; car++) {
+            assertTrue(callsPerCar[car] > 0, "Car " + car + " should get part of the burst");
+        }
+    }
+    
+    @Test
+    @DisplayName("Rides requested without threads complete on exit")
+    void testRequestRide() throws Exception {
+        SystemController group = new SystemController(0, 19, 2, new VirtualClock());
+        group.setEventLog(EventLog.silent());
+        group.start();
+        
+        Random random = new Random(7);
+        List<CompletableFuture<RideResult>> rides = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int source = random.nextInt(20);
+            int destination = (source + 1 + random.nextInt(19)) % 20;
+            rides.add(group.requestRide(source, destination).toCompletableFuture());
+        }
+        group.runFor(6 * 60 * 60 * 1000L);
+        
+        for (CompletableFuture<RideResult> ride : rides) {
+            assertTrue(ride.isDone(), "Every ride should complete");
+            RideResult result = ride.get();
+            assertTrue(result.getRequestTime() <= result.getBoardingTime()
+                       && result.getBoardingTime() < result.getArrivalTime()
+                       && result.getArrivalTime() < result.getExitTime(), "Milestones should be in order");
+        }
+        assertEquals(2000, group.getMetrics().getRidersServed(), "Every ride should be counted");
+        
+        CompletionStage<RideResult> invalid = group.requestRide(3, 3);
+        assertTrue(invalid.toCompletableFuture().isCompletedExceptionally(), "A ride needs two floors");
+    }
+    
+    @Test
+    @DisplayName("Rides complete in real time without a rider thread")
+    void testRequestRideRealTime() throws Exception {
+        SystemController building = new SystemController(0, 3);
+        building.setEventLog(EventLog.silent());
+        building.start();
+        try {
+            RideResult result = building.requestRide(0, 2).toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertEquals(2, result.getDestinationFloor(), "Ride should reach floor 2");
+            assertTrue(result.getRideTime() >= 2 * CarController.MOVEMENT_TIME, "Ride should take the travel time");
+        } finally {
+            building.shutdown();
+        }
+    }
 }
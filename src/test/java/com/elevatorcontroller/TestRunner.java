@@ -27,6 +27,15 @@ public class TestRunner {
         runner.runTestClass(DoorTest.class);
         runner.runTestClass(SystemControllerTest.class);
         runner.runTestClass(IntegrationTest.class);
+        runner.runTestClass(EventSchedulerTest.class);
+        runner.runTestClass(RiderExecutorTest.class);
+        runner.runTestClass(ExecutionTraceTest.class);
+        runner.runTestClass(AsyncEventLogTest.class);
+        runner.runTestClass(LatencyHistogramTest.class);
+        runner.runTestClass(TraceFileTest.class);
+        runner.runTestClass(CarInterlockTest.class);
+        runner.runTestClass(TrafficGeneratorTest.class);
+        runner.runTestClass(ParameterSweepTest.class);
         
         // Print summary
         System.out.println("\n========================================");
@@ -83,6 +92,14 @@ public class TestRunner {
                     System.out.println(failMsg);
                     failures.add(testClass.getSimpleName() + "." + method.getName() + 
                                ": " + cause.getMessage());
+                } finally {
+                    // Call tearDown if exists
+                    try {
+                        Method tearDown = testClass.getDeclaredMethod("tearDown");
+                        tearDown.invoke(testInstance);
+                    } catch (NoSuchMethodException e) {
+                        // tearDown not required
+                    }
                 }
             }
         }
@@ -0,0 +1,126 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for the TraceFileWriter and TraceFileReader classes.
+ * Tests binary trace persistence including:
+ * - Round trip of the event fields
+ * - Truncation of long texts on character boundaries
+ * - Appending to an existing file and recovering an unclosed file
+ * - Rejecting files that are not traces of this version
+ */
+@DisplayName("Trace File Tests")
+class TraceFileTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Events are read back as they were written")
+    void testRoundTrip() throws IOException {
+        Path path = directory.resolve("trace.bin");
+        ExecutionTrace trace = new ExecutionTrace(new VirtualClock(500));
+        trace.recordUserEvent(3, "effective l'appel 2-UP");
+        trace.recordDoorEvent(2, "ouverture");
+        trace.recordElevatorEvent("arrêt à l'étage 2");
+        trace.exportTo(path);
+        
+        try (TraceFileReader reader = new TraceFileReader(path)) {
+            assertEquals(3, reader.size(), "Three events should be stored");
+            for (int i = 0; i < 3; i++) {
+                ExecutionTrace.TraceEvent expected = trace.getEvents().get(i);
+                ExecutionTrace.TraceEvent actual = reader.get(i);
+                assertEquals(expected.toString(), actual.toString(), "Event " + i + " should match");
+                assertEquals(500, actual.timestamp, "Timestamp should be stored");
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Long texts are truncated without cutting a character")
+    void testTruncation() throws IOException {
+        Path path = directory.resolve("trace.bin");
+        String action = "é".repeat(100);
+        try (TraceFileWriter writer = new TraceFileWriter(path)) {
+            writer.append(0, '+', "Ascenseur", action);
+        }
+        
+        try (TraceFileReader reader = new TraceFileReader(path)) {
+            String stored = reader.get(0).action;
+            assertEquals(TraceFileWriter.ACTION_BYTES / 2, stored.length(), "Action should fill the field");
+            assertTrue(action.startsWith(stored), "Action should be a prefix of the original");
+        }
+    }
+    
+    @Test
+    @DisplayName("Reopening a file appends after its last event")
+    void testReopenAppends() throws IOException {
+        Path path = directory.resolve("trace.bin");
+        try (TraceFileWriter writer = new TraceFileWriter(path)) {
+            writer.append(1, '#', "Usager[0]", "first");
+        }
+        try (TraceFileWriter writer = new TraceFileWriter(path)) {
+            assertEquals(1, writer.getEventCount(), "Existing event should be counted");
+            writer.append(2, '#', "Usager[0]", "second");
+        }
+        
+        try (TraceFileReader reader = new TraceFileReader(path)) {
+            List<String> actions = reader.stream().map(event -> event.action).collect(Collectors.toList());
+            assertEquals(List.of("first", "second"), actions, "Events should be in append order");
+            assertEquals(1, reader.get(1).eventNumber, "Numbering should continue");
+            assertEquals(1L, reader.getEventNumber(1), "Stored number should continue");
+        }
+    }
+    
+    @Test
+    @DisplayName("Events of a file that was not closed are recovered")
+    void testRecoverUnclosedFile() throws IOException {
+        Path path = directory.resolve("trace.bin");
+        TraceFileWriter writer = new TraceFileWriter(path);
+        try {
+            for (int i = 0; i < 10; i++) {
+                writer.append(i, '*', "Porte[0]", "ouverture");
+            }
+            try (TraceFileReader reader = new TraceFileReader(path)) {
+                assertEquals(10, reader.size(), "Complete records should be recovered");
+                int count = 0;
+                for (ExecutionTrace.TraceEvent event : reader) {
+                    assertEquals(count++, event.timestamp, "Events should be in order");
+                }
+                assertEquals(10, count, "Iteration should visit every event");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Files that are not traces are rejected")
+    void testRejectsOtherFiles() throws IOException {
+        Path path = directory.resolve("other.bin");
+        Files.write(path, new byte[256]);
+        assertThrows(IOException.class, () -> new TraceFileReader(path), "Bad magic should be rejected");
+    }
+    
+    @Test
+    @DisplayName("Files with another record size are rejected with their own message")
+    void testRejectsOtherRecordSize() throws IOException {
+        Path path = directory.resolve("other.bin");
+        ByteBuffer header = ByteBuffer.allocate(TraceFileWriter.HEADER_SIZE);
+        header.putInt(TraceFileWriter.MAGIC).putInt(TraceFileWriter.VERSION).putInt(64).putLong(0L);
+        Files.write(path, header.array());
+        IOException error = assertThrows(IOException.class, () -> new TraceFileReader(path));
+        assertTrue(error.getMessage().contains("record size 64"),
+                   "Record size should be reported: " + error.getMessage());
+    }
+}
@@ -0,0 +1,68 @@
+package com.elevatorcontroller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.SplittableRandom;
+
+/**
+ * Unit tests for the TrafficGenerator class.
+ * Tests traffic scenarios including:
+ * - Origin and destination of each pattern
+ * - Poisson arrival rate and seeded replay
+ * - Latency measured from the intended arrival
+ */
+@DisplayName("Traffic Generator Tests")
+class TrafficGeneratorTest {
+    
+    private static final long HOUR = 60 * 60 * 1000L;
+    
+    @Test
+    @DisplayName("Patterns send riders from and to the lobby")
+    void testPatterns() {
+        SplittableRandom random = new SplittableRandom(1);
+        int fromLobby = 0;
+        int toLobby = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int[] trip = TrafficPattern.UP_PEAK.nextTrip(random, -1, 9);
+            assertNotEquals(trip[0], trip[1], "A trip needs two different floors");
+            assertTrue(trip[0] >= -1 && trip[1] <= 9, "Trip should stay in the building");
+            fromLobby += trip[0] == -1 ? 1 : 0;
+            toLobby += TrafficPattern.DOWN_PEAK.nextTrip(random, -1, 9)[1] == -1 ? 1 : 0;
+        }
+        assertTrue(fromLobby > 9000, "Up-peak riders should mostly start at the lobby");
+        assertTrue(toLobby > 9000, "Down-peak riders should mostly go to the lobby");
+    }
+    
+    @Test
+    @DisplayName("Arrivals follow the rate and replay with the same seed")
+    void testSeededPoissonArrivals() throws InterruptedException {
+        TrafficReport first = runScenario(TrafficPattern.INTER_FLOOR, 5, 42);
+        TrafficReport second = runScenario(TrafficPattern.INTER_FLOOR, 5, 42);
+        
+        assertEquals(300, first.getGenerated(), 60, "About 5 riders per minute for an hour");
+        assertEquals(first.getGenerated(), second.getGenerated(), "Same seed should give the same arrivals");
+        assertEquals(first.getWaitTime().getMax(), second.getWaitTime().getMax(), "Same seed should replay exactly");
+        assertEquals(first.getGenerated(), first.getCompleted(), "Every rider should be served after draining");
+    }
+    
+    @Test
+    @DisplayName("Latency grows with the load and includes queueing")
+    void testLatencyFromIntendedArrival() throws InterruptedException {
+        TrafficReport light = runScenario(TrafficPattern.UP_PEAK, 2, 7);
+        TrafficReport heavy = runScenario(TrafficPattern.UP_PEAK, 30, 7);
+        
+        assertTrue(heavy.getWaitTime().getP95() > light.getWaitTime().getP95(),
+                   "A saturated car should make riders wait longer");
+        assertTrue(heavy.getTripTime().getP50() >= heavy.getWaitTime().getP50(),
+                   "A trip includes the wait");
+    }
+    
+    private TrafficReport runScenario(TrafficPattern pattern, double arrivalsPerMinute, long seed)
+            throws InterruptedException {
+        SystemController building = new SystemController(0, 9, new VirtualClock());
+        building.setEventLog(EventLog.silent());
+        building.start();
+        return new TrafficGenerator(building, pattern, arrivalsPerMinute, seed).run(HOUR, 4 * HOUR);
+    }
+}